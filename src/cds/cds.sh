@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Application class-data-sharing (AppCDS) archive for the thin jar built by the Maven "cds" profile.
+#
+#   cds.sh train  <cds-dir> <jar>          training start-up, then dumps <cds-dir>/app-cds.jsa
+#   cds.sh report <cds-dir> <jar>          starts the application with and without the archive, prints startup and RSS
+#   cds.sh run    <cds-dir> <jar> [args]   starts the application with the archive
+#
+# CDS cannot share classes loaded from the nested jars of the Spring Boot fat jar, hence the thin jar with lib/.
+# The archive is only valid for the JDK and class path it was dumped with.
+#
+#   CDS_TRAINING_ARGS  application arguments of the training start-up, e.g. a database holding a few anime:
+#                      "--spring.r2dbc.url=r2dbc:postgresql://db:5432/postgres?schema=anime --spring.r2dbc.username=..."
+#                      Without one the warm-up requests fail before reading a row, so the r2dbc-postgresql codecs and
+#                      the JSON serialization of Anime are loaded lazily at run time instead of from the archive.
+#   CDS_REPORT_ARGS    application arguments of the measured start-ups, e.g. --spring.profiles.active=warmup; by
+#                      default they run with the configuration as shipped.
+set -euo pipefail
+
+command=$1
+directory=$2
+jar=$3
+shift 3
+
+archive="$directory/app-cds.jsa"
+class_list="$directory/classes.lst"
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+runs="${CDS_REPORT_RUNS:-3}"
+
+feature=$("$java" -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ {print $2}')
+jvm_options=()
+if [ "${feature%%.*}" -ge 13 ]; then
+    # BlockHound (SpringWebfluxApplication) redefines JDK classes on start-up.
+    jvm_options+=(-XX:+AllowRedefinitionToAddDeleteMethods)
+fi
+
+app_options=(--server.port=0 --app.startup.exit-after-ready=true)
+read -r -a training_args <<< "${CDS_TRAINING_ARGS:-}"
+read -r -a report_args <<< "${CDS_REPORT_ARGS:-}"
+if [ ${#training_args[@]} -eq 0 ]; then
+    # Without a training database the schema cannot be initialized either.
+    training_args=(--app.database.initialize-schema=false)
+fi
+if [ ${#report_args[@]} -eq 0 ]; then
+    # Measured start-ups must not depend on a database being reachable.
+    report_args=(--app.database.initialize-schema=false)
+fi
+
+report_line() {
+    grep -o 'Startup report: .*' | tail -1 | sed 's/^Startup report: //'
+}
+
+case "$command" in
+    train)
+        rm -f "$archive" "$class_list"
+        # The warm-up drives requests through security and the controllers, so their classes get archived too; the
+        # database and JSON paths only when CDS_TRAINING_ARGS points the training run at a database.
+        if [ -z "${CDS_TRAINING_ARGS:-}" ]; then
+            echo "[cds] no CDS_TRAINING_ARGS, training without a database: R2DBC and JSON classes are not archived"
+        fi
+        "$java" "${jvm_options[@]}" -Xshare:off -XX:DumpLoadedClassList="$class_list" -jar "$jar" \
+            "${app_options[@]}" --app.warmup.enabled=true --app.warmup.iterations=20 "${training_args[@]}" \
+            > "$directory/training.log" 2>&1
+        "$java" "${jvm_options[@]}" -Xshare:dump -XX:SharedClassListFile="$class_list" \
+            -XX:SharedArchiveFile="$archive" -cp "$jar" > "$directory/dump.log" 2>&1
+        echo "[cds] $(wc -l < "$class_list") classes archived in $archive ($(du -h "$archive" | cut -f1))"
+        ;;
+    report)
+        for run in $(seq 1 "$runs"); do
+            without=$("$java" "${jvm_options[@]}" -jar "$jar" "${app_options[@]}" "${report_args[@]}" 2>&1 | report_line)
+            with=$("$java" "${jvm_options[@]}" -XX:SharedArchiveFile="$archive" -Xshare:auto -jar "$jar" \
+                "${app_options[@]}" "${report_args[@]}" 2>&1 | report_line)
+            echo "[cds] run $run without archive: $without"
+            echo "[cds] run $run with archive:    $with"
+        done
+        ;;
+    run)
+        exec "$java" "${jvm_options[@]}" -XX:SharedArchiveFile="$archive" -Xshare:auto -jar "$jar" "$@"
+        ;;
+    *)
+        echo "Unknown command $command, expected train, report or run" >&2
+        exit 2
+        ;;
+esac
@@ -0,0 +1,208 @@
+#!/usr/bin/env bash
+# Load scenarios against the application backed by a database holding at least one anime. Needs h2load (nghttp2)
+# and curl.
+#
+#   load.sh lanes <base-url>    interactive GET /anime/{id} alone, then again while PUT and POST /anime/batch clients
+#                               saturate the workload lanes; prints the interactive latency of both runs, the status
+#                               codes of the batch requests and the rejections per lane. Start the application with the
+#                               profiles under test, e.g. --spring.profiles.active=overload-protection, and with
+#                               app.persistence.engine set to the engine whose lanes should be checked.
+#   load.sh transport <base-url> GET /anime/{id} and GET /anime over HTTP/1.1 and cleartext HTTP/2, each with and without
+#                               gzip; prints throughput, latency and the bytes on the wire (headers and data). Start the
+#                               application with --spring.profiles.active=h2c.
+#   load.sh engines <jar>       starts the jar once per persistence engine (r2dbc, jdbc) and reads GET /anime/{id} at
+#                               each LOAD_CONCURRENCY; prints throughput, p50 and p99 latency, and the resident memory
+#                               each in-flight request adds. Run it with JAVA_HOME on Java 21 or later so the JDBC
+#                               engine uses virtual threads.
+#
+#   LOAD_DURATION      seconds per measured run (default 30)
+#   LOAD_CLIENTS       concurrent interactive connections of lanes and transport (default 32)
+#   LOAD_STREAMS       concurrent requests per HTTP/2 connection of transport (default 10)
+#   LOAD_BULK_CLIENTS  concurrent clients per batch route (default 24, well past the permits plus max-queued)
+#   LOAD_BATCH_ROWS    anime per batch request (default 500)
+#   LOAD_ANIME_ID      id read by the interactive requests (default 1)
+#   LOAD_CONCURRENCY   in-flight requests measured by engines (default "16 64 256 1024")
+#   LOAD_APP_ARGS      application arguments of the started jar: the database of both engines, e.g.
+#                      "--spring.r2dbc.url=... --spring.profiles.active=jdbc --app.persistence.jdbc.url=..."
+#   LOAD_PORT          port of the started jar (default 8080)
+set -euo pipefail
+
+command=$1
+target=$2
+shift 2
+
+duration="${LOAD_DURATION:-30}"
+clients="${LOAD_CLIENTS:-32}"
+bulk_clients="${LOAD_BULK_CLIENTS:-24}"
+streams="${LOAD_STREAMS:-10}"
+batch_rows="${LOAD_BATCH_ROWS:-500}"
+anime_id="${LOAD_ANIME_ID:-1}"
+concurrency_levels="${LOAD_CONCURRENCY:-16 64 256 1024}"
+port="${LOAD_PORT:-8080}"
+java="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+work=$(mktemp -d)
+trap 'kill $(jobs -p) 2> /dev/null || true; rm -rf "$work"' EXIT
+
+for tool in h2load curl; do
+    if ! command -v "$tool" > /dev/null; then
+        echo "[load] $tool is required" >&2
+        exit 1
+    fi
+done
+
+token() {
+    curl -sf -u "$1:123456" -X POST "$base_url/auth/token" | sed 's/.*"token":"\([^"]*\)".*/\1/'
+}
+
+login() {
+    user_token=$(token user)
+    admin_token=$(token admin)
+}
+
+# h2load summary lines: throughput, status codes and the request time distribution.
+interactive() {
+    h2load --h1 -D "$duration" -c "$clients" -H "Authorization: Bearer $user_token" "$base_url/anime/$anime_id" \
+        | grep -E '^(finished in|status codes:|time for request:)' | sed "s/^/[load] $1 /"
+}
+
+batch_body() {
+    local prefix=$1 row
+    printf '['
+    for row in $(seq 1 "$batch_rows"); do
+        [ "$row" -gt 1 ] && printf ','
+        printf '{"name":"load-%s-%d"}' "$prefix" "$row"
+    done
+    printf ']'
+}
+
+# Sends batches back to back until killed, one status code per line.
+batch_client() {
+    local method=$1 client=$2 request=0
+    while true; do
+        request=$((request + 1))
+        batch_body "$method-$client-$request-$$" > "$work/body-$method-$client"
+        curl -s -o /dev/null -w '%{http_code}\n' -X "$method" -H "Authorization: Bearer $admin_token" \
+            -H 'Content-Type: application/json' --data-binary "@$work/body-$method-$client" "$base_url/anime/batch" \
+            >> "$work/status-$method" || true
+    done
+}
+
+# Request times of one h2load run at the given concurrency: "<req/s> <p50 ms> <p99 ms>".
+measure() {
+    local clients=$1 log="$work/requests.log"
+    rm -f "$log"
+    h2load --h1 -D "$duration" -c "$clients" --log-file="$log" -H "Authorization: Bearer $user_token" \
+        "$base_url/anime/$anime_id" > /dev/null
+    cut -f3 "$log" | sort -n | awk -v seconds="$duration" '
+        { times[NR] = $1 }
+        END {
+            if (NR == 0) { print "0 - -"; exit }
+            printf "%.0f %.1f %.1f\n", NR / seconds, times[int(NR * 0.5) + 1] / 1000, times[int(NR * 0.99) + 1] / 1000
+        }'
+}
+
+rss_kb() {
+    ps -o rss= -p "$1" | tr -d ' '
+}
+
+# Keeps the peak resident memory of the process in $work/peak until killed.
+sample_peak_rss() {
+    local process=$1 peak rss
+    peak=$(cat "$work/peak")
+    while true; do
+        rss=$(rss_kb "$process")
+        if [ "$rss" -gt "$peak" ]; then
+            peak=$rss
+            echo "$peak" > "$work/peak"
+        fi
+        sleep 1
+    done
+}
+
+metric() {
+    curl -sf -H "Authorization: Bearer $admin_token" "$base_url/actuator/metrics/$1?tag=$2" \
+        | grep -o '"value":[0-9.E+-]*' | head -1 | cut -d: -f2
+}
+
+case "$command" in
+    lanes)
+        base_url=${target%/}
+        login
+        interactive "alone:     "
+        for method in PUT POST; do
+            for client in $(seq 1 "$bulk_clients"); do
+                batch_client "$method" "$client" &
+            done
+        done
+        sleep 2
+        interactive "with bulk: "
+        kill $(jobs -p) 2> /dev/null || true
+        wait 2> /dev/null || true
+        for method in PUT POST; do
+            echo "[load] $method /anime/batch status codes: $(sort "$work/status-$method" | uniq -c | tr -s ' ' | tr '\n' ' ')"
+        done
+        for lane in r2dbc jdbc sharded; do
+            rejected=$(metric workload.lane.rejected "lane:$lane" || true)
+            if [ -n "$rejected" ]; then
+                echo "[load] lane $lane rejected: $rejected"
+            fi
+        done
+        ;;
+    transport)
+        base_url=${target%/}
+        login
+        for path in "/anime/$anime_id" /anime; do
+            for protocol in http/1.1 h2c; do
+                # h2load speaks HTTP/2 with prior knowledge to http:// URLs unless told otherwise.
+                protocol_options=(-m "$streams")
+                if [ "$protocol" = http/1.1 ]; then
+                    protocol_options=(--h1 -m 1)
+                fi
+                for encoding in identity gzip; do
+                    h2load "${protocol_options[@]}" -D "$duration" -c "$clients" \
+                        -H "Authorization: Bearer $user_token" -H "Accept-Encoding: $encoding" "$base_url$path" \
+                        | grep -E '^(finished in|status codes:|traffic:|time for request:)' \
+                        | sed "s|^|[load] $path $protocol $encoding: |"
+                done
+            done
+        done
+        ;;
+    engines)
+        base_url="http://localhost:$port"
+        read -r -a app_args <<< "${LOAD_APP_ARGS:-}"
+        jvm_options=(-XX:+AllowRedefinitionToAddDeleteMethods)
+        for engine in r2dbc jdbc; do
+            "$java" "${jvm_options[@]}" -jar "$target" --server.port="$port" --app.persistence.engine="$engine" \
+                "${app_args[@]}" > "$work/$engine.log" 2>&1 &
+            app=$!
+            until curl -sf "$base_url/actuator/health" > /dev/null; do
+                if ! kill -0 "$app" 2> /dev/null; then
+                    echo "[load] $engine engine did not start, see its log:" >&2
+                    tail -20 "$work/$engine.log" >&2
+                    exit 1
+                fi
+                sleep 1
+            done
+            login
+            # Warm-up, so the JIT and both pools are settled before the first measured run.
+            measure 16 > /dev/null
+            idle=$(rss_kb "$app")
+            for clients in $concurrency_levels; do
+                echo "$idle" > "$work/peak"
+                sample_peak_rss "$app" &
+                sampler=$!
+                read -r throughput p50 p99 <<< "$(measure "$clients")"
+                kill "$sampler"
+                peak=$(cat "$work/peak")
+                echo "[load] engine $engine, $clients in flight: $throughput req/s, p50 $p50 ms, p99 $p99 ms," \
+                    "rss $((peak / 1024)) MB, $(( (peak - idle) / clients )) KB per in-flight request"
+            done
+            kill "$app"
+            wait "$app" 2> /dev/null || true
+        done
+        ;;
+    *)
+        echo "Unknown command $command, expected lanes, transport or engines" >&2
+        exit 1
+        ;;
+esac
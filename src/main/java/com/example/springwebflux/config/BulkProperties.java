@@ -0,0 +1,22 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "app.bulk")
+public class BulkProperties {
+    /**
+     * Rows per multi-row INSERT ... ON CONFLICT statement issued by PUT /anime/batch.
+     */
+    private int upsertChunkSize = 500;
+    /**
+     * Rows read from COPY TO STDOUT are gathered into response chunks of about this size.
+     */
+    private DataSize exportChunkSize = DataSize.ofKilobytes(8);
+    /**
+     * Validated CSV rows handed to COPY FROM STDIN per write.
+     */
+    private int importChunkRows = 1000;
+}
@@ -0,0 +1,47 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.filter.ConcurrencyLimitFilter;
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.limit.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @Order(WebFilterOrder.CONCURRENCY_LIMIT)
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        Map<String, AdaptiveConcurrencyLimit> limits = new HashMap<>();
+        Map<String, Counter> rejections = new HashMap<>();
+        properties.getGroups().forEach((group, settings) -> {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(settings.getInitialLimit(),
+                    settings.getMinLimit(), settings.getMaxLimit(), properties.getBackoffRatio(),
+                    properties.getTolerance(), properties.getSmoothing(), properties.getWindowSize());
+            limits.put(group, limit);
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("group", group)
+                    .register(meterRegistry);
+            rejections.put(group, Counter.builder("http.server.concurrency.rejected")
+                    .tag("group", group)
+                    .register(meterRegistry));
+        });
+        return new ConcurrencyLimitFilter(limits, rejections, new HashSet<>(properties.getExcludedRoutes()),
+                properties.getRetryAfter());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springwebflux.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    public static final String READS = "reads";
+    public static final String WRITES = "writes";
+
+    private boolean enabled = false;
+    /**
+     * Limits per route group: reads are GET/HEAD on /anime/**, writes every other method on /anime/**.
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>(Map.of(
+            READS, new Group(100, 10, 1000),
+            WRITES, new Group(20, 2, 200)));
+    private double backoffRatio = 0.9;
+    /**
+     * A window whose mean latency exceeds this multiple of the group's baseline (its lowest window mean) counts as
+     * overload, and only faster requests grow the limit.
+     */
+    private double tolerance = 2.0;
+    /**
+     * Weight of a mostly idle window's mean when the baseline moves up to it; busy windows never raise the baseline.
+     */
+    private double smoothing = 0.01;
+    /**
+     * Samples whose mean latency decides whether the limit backs off; single slow requests never do.
+     */
+    private int windowSize = 50;
+    /**
+     * Long-running bulk routes, as "METHOD /path", that take no permit and feed no samples; the workload lanes
+     * bound them instead.
+     */
+    private List<String> excludedRoutes = List.of("PUT /anime/batch", "POST /anime/batch", "POST /anime/import", "GET /anime/export");
+    /**
+     * Sent as Retry-After with the 503 of a rejected request.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+}
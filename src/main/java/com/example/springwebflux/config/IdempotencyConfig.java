@@ -0,0 +1,55 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.filter.IdempotencyFilter;
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.repository.DatabaseIdempotencyStore;
+import com.example.springwebflux.repository.IdempotencyStore;
+import com.example.springwebflux.repository.InMemoryIdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class IdempotencyConfig {
+    private final IdempotencyProperties properties;
+    private final ObjectProvider<IdempotencyStore> idempotencyStore;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore() {
+        return new InMemoryIdempotencyStore(properties, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "database")
+    public IdempotencyStore databaseIdempotencyStore(DatabaseClient databaseClient) {
+        return new DatabaseIdempotencyStore(databaseClient, properties);
+    }
+
+    @Bean
+    @Order(WebFilterOrder.IDEMPOTENCY)
+    public IdempotencyFilter idempotencyFilter(IdempotencyStore idempotencyStore) {
+        return new IdempotencyFilter(idempotencyStore, properties);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.eviction-interval-ms:60000}")
+    public void evictExpiredIdempotencyKeys() {
+        idempotencyStore.getObject().evictExpired()
+                .subscribe(null, error -> log.warn("Could not evict expired idempotency keys", error));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = false;
+    /**
+     * Where responses are kept: "memory" (per node) or "database" (shared between nodes).
+     */
+    private String store = "memory";
+    private Set<String> paths = Set.of("/anime", "/anime/batch");
+    private Duration ttl = Duration.ofHours(1);
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+    private Duration pollInterval = Duration.ofMillis(100);
+    private int maxEntries = 10_000;
+    /**
+     * Largest request body read for fingerprinting (larger ones get 413) and largest response kept for replay.
+     * Matches the default spring.codec.max-in-memory-size.
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+}
@@ -0,0 +1,65 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.repository.JdbcAnimeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence.jdbc", name = "url")
+public class JdbcConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource jdbcDataSource(PersistenceProperties properties) {
+        PersistenceProperties.Jdbc jdbc = properties.getJdbc();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("anime-jdbc");
+        dataSource.setJdbcUrl(jdbc.getUrl());
+        dataSource.setUsername(jdbc.getUsername());
+        dataSource.setPassword(jdbc.getPassword());
+        dataSource.setMaximumPoolSize(jdbc.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(jdbc.getConnectionTimeout().toMillis());
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(PersistenceProperties properties) {
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        if (virtualThreads != null) {
+            return Schedulers.fromExecutorService(virtualThreads, "jdbc");
+        }
+        log.info("Virtual threads are not available on Java {}, running JDBC calls on a bounded pool",
+                Runtime.version().feature());
+        return Schedulers.newBoundedElastic(properties.getJdbc().getFallbackThreads(),
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jdbc");
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.persistence", name = "engine", havingValue = "jdbc")
+    public JdbcAnimeRepository jdbcAnimeRepository(DataSource jdbcDataSource,
+                                                   @Qualifier("jdbcScheduler") Scheduler jdbcScheduler,
+                                                   PersistenceProperties properties) {
+        return new JdbcAnimeRepository(jdbcDataSource, jdbcScheduler, properties.getJdbc().getFetchSize());
+    }
+
+    // Looked up reflectively so the project keeps compiling for Java 11.
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
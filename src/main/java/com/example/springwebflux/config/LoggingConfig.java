@@ -0,0 +1,55 @@
+package com.example.springwebflux.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.example.springwebflux.filter.AccessLogFilter;
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.logging.DroppingAsyncAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import java.util.Iterator;
+
+@Configuration
+@EnableConfigurationProperties(LoggingProperties.class)
+public class LoggingConfig {
+
+    @Bean
+    @Order(WebFilterOrder.ACCESS_LOG)
+    @ConditionalOnProperty(prefix = "app.logging.access-log", name = "enabled", havingValue = "true")
+    public AccessLogFilter accessLogFilter(LoggingProperties properties) {
+        return new AccessLogFilter(properties.getAccessLog());
+    }
+
+    @Autowired
+    public void bindAsyncAppenderMetrics(MeterRegistry meterRegistry) {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            return;
+        }
+        Logger root = ((LoggerContext) loggerFactory).getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        for (Iterator<Appender<ILoggingEvent>> appenders = root.iteratorForAppenders(); appenders.hasNext(); ) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof DroppingAsyncAppender) {
+                DroppingAsyncAppender async = (DroppingAsyncAppender) appender;
+                FunctionCounter.builder("logging.async.dropped", async, DroppingAsyncAppender::getDroppedCount)
+                        .tag("appender", async.getName())
+                        .register(meterRegistry);
+                Gauge.builder("logging.async.queued", async, DroppingAsyncAppender::getNumberOfElementsInQueue)
+                        .tag("appender", async.getName())
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.logging")
+public class LoggingProperties {
+    /**
+     * Events buffered by the asynchronous appender before new ones are dropped; read by logback-spring.xml.
+     */
+    private int queueSize = 8192;
+    private AccessLog accessLog = new AccessLog();
+
+    @Data
+    public static class AccessLog {
+        private boolean enabled = false;
+        /**
+         * Fraction of successful requests logged with their SQL; failed and slow requests are always logged.
+         */
+        private double sampleRate = 0.01;
+        private Duration slowThreshold = Duration.ofSeconds(1);
+        /**
+         * SQL statements kept per request.
+         */
+        private int maxStatements = 32;
+    }
+}
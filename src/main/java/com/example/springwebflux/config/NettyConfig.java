@@ -0,0 +1,40 @@
+package com.example.springwebflux.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.LoopResources;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(NettyProperties.class)
+public class NettyConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources serverLoopResources(NettyProperties properties) {
+        if (properties.getSelectThreads() <= 0) {
+            return LoopResources.create("anime-http", properties.getWorkerThreads(), true);
+        }
+        return LoopResources.create("anime-http", properties.getSelectThreads(), properties.getWorkerThreads(), true);
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerCustomizer(NettyProperties properties,
+                                                                                          LoopResources serverLoopResources) {
+        boolean nativeTransport = properties.isPreferNative() && LoopResources.hasNativeSupport();
+        log.info("Netty server transport: {}, worker threads: {}, h2c: {}",
+                nativeTransport ? "native" : "nio", properties.getWorkerThreads(), properties.isH2c());
+
+        return factory -> factory.addServerCustomizers(httpServer -> {
+            httpServer = httpServer.runOn(serverLoopResources, properties.isPreferNative());
+            if (properties.isH2c()) {
+                httpServer = httpServer.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+            }
+            return httpServer;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.resources.LoopResources;
+
+@Data
+@ConfigurationProperties(prefix = "app.netty")
+public class NettyProperties {
+    /**
+     * Threads accepting connections, 0 or less shares the worker threads.
+     */
+    private int selectThreads = LoopResources.DEFAULT_IO_SELECT_COUNT;
+    private int workerThreads = LoopResources.DEFAULT_IO_WORKER_COUNT;
+    /**
+     * Use epoll/kqueue when the native transport is on the classpath, NIO otherwise.
+     */
+    private boolean preferNative = true;
+    /**
+     * Accept cleartext HTTP/2 (prior knowledge and h2c upgrade) next to HTTP/1.1.
+     */
+    private boolean h2c = false;
+}
@@ -0,0 +1,106 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.repository.AnimeRepository;
+import com.example.springwebflux.repository.JdbcAnimeRepository;
+import com.example.springwebflux.repository.ResilientAnimeRepository;
+import com.example.springwebflux.repository.ShardedAnimeRepository;
+import com.example.springwebflux.repository.SnapshotAnimeRepository;
+import com.example.springwebflux.repository.TransactionalAnimeRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({RepositoryResilienceProperties.class, PersistenceProperties.class, BulkProperties.class,
+        SnapshotProperties.class})
+public class PersistenceConfig {
+
+    @Bean
+    @Primary
+    public AnimeRepository primaryAnimeRepository(@Qualifier("animeRepository") AnimeRepository animeRepository,
+                                                  ObjectProvider<JdbcAnimeRepository> jdbcAnimeRepository,
+                                                  ObjectProvider<ShardedAnimeRepository> shardedAnimeRepository,
+                                                  ReactiveTransactionManager transactionManager,
+                                                  PersistenceProperties persistence,
+                                                  RepositoryResilienceProperties resilience,
+                                                  SnapshotProperties snapshotProperties,
+                                                  MeterRegistry meterRegistry) {
+        AnimeRepository repository = new TransactionalAnimeRepository(animeRepository,
+                TransactionalOperator.create(transactionManager));
+        if (persistence.getEngine() == PersistenceProperties.Engine.JDBC) {
+            repository = jdbcAnimeRepository.getIfAvailable();
+            if (repository == null) {
+                throw new IllegalStateException("app.persistence.engine=jdbc requires app.persistence.jdbc.url, "
+                        + "e.g. from the jdbc profile");
+            }
+        } else if (persistence.getEngine() == PersistenceProperties.Engine.SHARDED) {
+            repository = shardedAnimeRepository.getObject();
+        }
+        log.info("Using the {} persistence engine", persistence.getEngine());
+        if (resilience.isEnabled()) {
+            repository = resilientAnimeRepository(repository, resilience, meterRegistry);
+        }
+        if (snapshotProperties.isEnabled()) {
+            SnapshotAnimeRepository snapshot = new SnapshotAnimeRepository(repository, snapshotProperties.getRefreshInterval());
+            meterRegistry.gauge("anime.snapshot.size", snapshot, SnapshotAnimeRepository::size);
+            repository = snapshot;
+        }
+        return repository;
+    }
+
+    private AnimeRepository resilientAnimeRepository(AnimeRepository delegate,
+                                                     RepositoryResilienceProperties resilience,
+                                                     MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(resilience.getFailureRateThreshold())
+                .slowCallDurationThreshold(resilience.getSlowCallDuration())
+                .slowCallRateThreshold(resilience.getSlowCallRateThreshold())
+                .slidingWindowSize(resilience.getSlidingWindowSize())
+                .minimumNumberOfCalls(resilience.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(resilience.getWaitDurationInOpenState())
+                .ignoreException(ResilientAnimeRepository::isCallerError)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker("animeRepository");
+        Bulkhead reads = bulkheads.bulkhead("animeRepository.reads", bulkhead(resilience.getMaxConcurrentReads()));
+        Bulkhead writes = bulkheads.bulkhead("animeRepository.writes", bulkhead(resilience.getMaxConcurrentWrites()));
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Circuit breaker {} changed {}", event.getCircuitBreakerName(), event.getStateTransition());
+            meterRegistry.counter("resilience4j.circuitbreaker.transitions",
+                    "name", event.getCircuitBreakerName(),
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name())
+                    .increment();
+        });
+
+        return new ResilientAnimeRepository(delegate, resilience, circuitBreaker, reads, writes);
+    }
+
+    private BulkheadConfig bulkhead(int maxConcurrentCalls) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+    }
+}
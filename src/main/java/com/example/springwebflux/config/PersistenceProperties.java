@@ -0,0 +1,59 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.persistence")
+public class PersistenceProperties {
+    /**
+     * Condition of the beans writing through the primary database, which the sharded engine leaves unused.
+     */
+    public static final String NOT_SHARDED = "!'${app.persistence.engine:r2dbc}'.equalsIgnoreCase('sharded')";
+
+    private Engine engine = Engine.R2DBC;
+    private Jdbc jdbc = new Jdbc();
+    private Sharding sharding = new Sharding();
+
+    public enum Engine {
+        R2DBC, JDBC, SHARDED
+    }
+
+    @Data
+    public static class Jdbc {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 32;
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        /**
+         * Rows fetched per round trip while streaming findAll and findAllById.
+         */
+        private int fetchSize = 500;
+        /**
+         * Threads used when the runtime has no virtual threads (Java < 21).
+         */
+        private int fallbackThreads = 64;
+    }
+
+    @Data
+    public static class Sharding {
+        /**
+         * One entry per database; the position of a shard decides which ids it holds, so the list must not be
+         * reordered or resized once data was written.
+         */
+        private List<Shard> shards = new ArrayList<>();
+        private int maxPoolSize = 10;
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
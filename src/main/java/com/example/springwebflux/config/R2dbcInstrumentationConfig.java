@@ -0,0 +1,63 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.r2dbc.InstrumentedConnectionFactory;
+import com.example.springwebflux.r2dbc.SqlStatistics;
+import com.example.springwebflux.r2dbc.SqlStatisticsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(SqlStatisticsProperties.class)
+@ConditionalOnExpression("${app.tracing.enabled:false} or ${app.sql-statistics.enabled:false}"
+        + " or ${app.logging.access-log.enabled:false}")
+public class R2dbcInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor instrumentedConnectionFactoryPostProcessor(ObjectProvider<SqlStatistics> sqlStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory && !(bean instanceof InstrumentedConnectionFactory)) {
+                    return new InstrumentedConnectionFactory((ConnectionFactory) bean, sqlStatistics.getIfAvailable());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sql-statistics", name = "enabled", havingValue = "true")
+    public SqlStatistics sqlStatistics(SqlStatisticsProperties properties) {
+        return new SqlStatistics(properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sql-statistics", name = "enabled", havingValue = "true")
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatisticsEndpoint(sqlStatistics);
+    }
+
+    @Autowired
+    public void bindConnectionPoolMetrics(Map<String, ConnectionFactory> connectionFactories, MeterRegistry meterRegistry) {
+        connectionFactories.forEach((name, connectionFactory) -> {
+            if (connectionFactory instanceof InstrumentedConnectionFactory
+                    && ((InstrumentedConnectionFactory) connectionFactory).unwrap() instanceof ConnectionPool) {
+                ConnectionPool pool = (ConnectionPool) ((InstrumentedConnectionFactory) connectionFactory).unwrap();
+                new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(meterRegistry);
+            }
+        });
+    }
+}
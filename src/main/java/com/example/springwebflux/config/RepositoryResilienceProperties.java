@@ -0,0 +1,41 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.repository.resilience")
+public class RepositoryResilienceProperties {
+    private boolean enabled = true;
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private Duration writeTimeout = Duration.ofSeconds(5);
+    /**
+     * Overrides keyed by AnimeRepository method name, e.g. saveAll: 30s.
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+    private int maxConcurrentReads = 64;
+    private int maxConcurrentWrites = 16;
+    private float failureRateThreshold = 50;
+    private Duration slowCallDuration = Duration.ofSeconds(1);
+    private float slowCallRateThreshold = 80;
+    private int slidingWindowSize = 50;
+    private int minimumNumberOfCalls = 20;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+    /**
+     * Serve findById from the last value read or written while the circuit breaker is open.
+     */
+    private boolean fallbackEnabled = false;
+    private int fallbackCacheSize = 10_000;
+
+    public Duration readTimeout(String operation) {
+        return timeouts.getOrDefault(operation, readTimeout);
+    }
+
+    public Duration writeTimeout(String operation) {
+        return timeouts.getOrDefault(operation, writeTimeout);
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.springwebflux.config;
 
+import com.example.springwebflux.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
@@ -11,21 +17,63 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 
 @EnableWebFluxSecurity
 @EnableReactiveMethodSecurity
+@EnableConfigurationProperties(TokenProperties.class)
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public SecurityWebFilterChain tokenWebFilterChain(ServerHttpSecurity http) {
         return http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/auth/token"))
                 .csrf().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
                 .authorizeExchange()
+                    .anyExchange().authenticated()
+                .and()
+                    .httpBasic()
+                .and()
+                    .build();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         TokenService tokenService,
+                                                         @Value("${app.security.stateless:true}") boolean stateless) {
+        http
+                .csrf().disable()
+                .authorizeExchange()
+                    .pathMatchers("/actuator/health/**").permitAll()
+                    .pathMatchers("/actuator/**").hasRole("ADMIN")
                     .pathMatchers(HttpMethod.POST, "/anime/**").hasRole("ADMIN")
+                    .pathMatchers(HttpMethod.PUT, "/anime/batch").hasRole("ADMIN")
                     .pathMatchers(HttpMethod.GET, "/anime/**").hasRole("USER")
-                .anyExchange().authenticated()
-                .and()
-                    .formLogin()
+                .anyExchange().authenticated();
+
+        if (stateless) {
+            return http
+                    .securityContextRepository(new TokenSecurityContextRepository(tokenService,
+                            NoOpServerSecurityContextRepository.getInstance()))
+                    .requestCache().requestCache(NoOpServerRequestCache.getInstance())
+                    .and()
+                        .exceptionHandling().authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+                    .and()
+                        .formLogin().disable()
+                        .httpBasic().disable()
+                        .build();
+        }
+
+        return http
+                .securityContextRepository(new TokenSecurityContextRepository(tokenService,
+                        new WebSessionServerSecurityContextRepository()))
+                .formLogin()
                 .and()
                     .httpBasic()
                 .and()
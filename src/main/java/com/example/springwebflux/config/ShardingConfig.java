@@ -0,0 +1,85 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.repository.ShardedAnimeRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "app.persistence", name = "engine", havingValue = "sharded")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ShardedAnimeRepository shardedAnimeRepository(PersistenceProperties properties,
+                                                         @Value("${app.idempotency.enabled:false}") boolean idempotency,
+                                                         @Value("${app.idempotency.store:memory}") String idempotencyStore) {
+        PersistenceProperties.Sharding sharding = properties.getSharding();
+        if (sharding.getShards().isEmpty()) {
+            throw new IllegalStateException("app.persistence.engine=sharded requires app.persistence.sharding.shards");
+        }
+        // Batch upserts and COPY are not registered with this engine (PersistenceProperties.NOT_SHARDED); the
+        // idempotency store is chosen explicitly, so keys landing in the unused primary database fail the startup.
+        if (idempotency && "database".equalsIgnoreCase(idempotencyStore)) {
+            throw new IllegalStateException("app.persistence.engine=sharded cannot keep idempotency keys in the primary "
+                    + "database, use app.idempotency.store=memory");
+        }
+        List<ConnectionFactory> shards = new ArrayList<>();
+        for (PersistenceProperties.Shard shard : sharding.getShards()) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(shard.getUrl()).mutate();
+            if (shard.getUsername() != null) {
+                options.option(ConnectionFactoryOptions.USER, shard.getUsername());
+            }
+            if (shard.getPassword() != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, shard.getPassword());
+            }
+            shards.add(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                    .name("anime-shard-" + shards.size())
+                    .maxSize(sharding.getMaxPoolSize())
+                    .build()));
+        }
+        return new ShardedAnimeRepository(shards);
+    }
+
+    // Populates every shard once the repository exists, the way ConnectionFactoryInitializer does for the primary
+    // database (DatabaseConfig).
+    @Bean
+    @ConditionalOnProperty(prefix = "app.database", name = "initialize-schema", havingValue = "true")
+    public InitializingBean shardSchemaInitializer(ShardedAnimeRepository shardedAnimeRepository) {
+        return () -> {
+            List<ConnectionFactory> shards = shardedAnimeRepository.getShards();
+            for (int index = 0; index < shards.size(); index++) {
+                ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+                initializer.setConnectionFactory(shards.get(index));
+                initializer.setDatabasePopulator(populator(index, shards.size()));
+                initializer.afterPropertiesSet();
+            }
+        };
+    }
+
+    // Shard i hands out ids i, i + n, i + 2n, ... (shard 0 starts at n, ids are positive).
+    private static ResourceDatabasePopulator populator(int shard, int shardCount) {
+        String sharding = "CREATE SEQUENCE IF NOT EXISTS anime." + ShardedAnimeRepository.SEQUENCE
+                + " START WITH " + (shard == 0 ? shardCount : shard) + " INCREMENT BY " + shardCount + ";\n"
+                + "CREATE TABLE IF NOT EXISTS anime." + ShardedAnimeRepository.NAME_TABLE
+                + " (name VARCHAR(255) PRIMARY KEY, id INT NOT NULL);";
+        return new ResourceDatabasePopulator(new ClassPathResource("schema.sql"),
+                new ByteArrayResource(sharding.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.snapshot")
+public class SnapshotProperties {
+    /**
+     * Serves reads from memory. Only writes made through this node are seen right away; writes from other nodes
+     * or made directly in the database stay invisible until the next reload.
+     */
+    private boolean enabled = false;
+    /**
+     * Full reload from the database that repairs any drift left by incremental updates and picks up writes from
+     * other nodes.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,17 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.sql-statistics")
+public class SqlStatisticsProperties {
+    private boolean enabled = false;
+    /**
+     * Statements whose first row takes longer than this are logged together with the types of their bind parameters.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+    private int maxStatements = 500;
+}
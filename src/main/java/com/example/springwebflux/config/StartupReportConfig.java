@@ -0,0 +1,39 @@
+package com.example.springwebflux.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// Used by src/cds/cds.sh: the training run and the measured start-ups exit as soon as the application is ready.
+@Configuration
+@ConditionalOnProperty(prefix = "app.startup", name = "exit-after-ready", havingValue = "true")
+public class StartupReportConfig {
+    static final String REPORT_PREFIX = "Startup report: ";
+
+    @EventListener
+    public void exitAfterReady(ApplicationReadyEvent event) {
+        // Written to stdout rather than the asynchronous log, which may not be flushed before the JVM exits.
+        System.out.println(REPORT_PREFIX + "ready after " + ManagementFactory.getRuntimeMXBean().getUptime()
+                + " ms, RSS " + residentSetSize());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    private static String residentSetSize() {
+        try (Stream<String> status = Files.lines(Path.of("/proc/self/status"))) {
+            return status.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.substring("VmRSS:".length()).trim())
+                    .findFirst()
+                    .orElse("n/a");
+        } catch (IOException e) {
+            return "n/a";
+        }
+    }
+}
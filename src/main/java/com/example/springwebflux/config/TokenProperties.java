@@ -0,0 +1,16 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.token")
+public class TokenProperties {
+    /**
+     * Base64 HMAC-SHA256 key shared by every node; a random per-process key is used when empty.
+     */
+    private String secret;
+    private Duration ttl = Duration.ofMinutes(15);
+}
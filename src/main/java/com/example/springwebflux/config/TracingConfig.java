@@ -0,0 +1,49 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.filter.RequestTimingFilter;
+import com.example.springwebflux.filter.SecurityTimingFilter;
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.tracing.RequestTimingEndpoint;
+import com.example.springwebflux.tracing.RequestTimingRecorder;
+import com.example.springwebflux.tracing.TimingJackson2JsonEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "app.tracing", name = "enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean
+    public RequestTimingRecorder requestTimingRecorder(TracingProperties properties) {
+        return new RequestTimingRecorder(properties.getBufferSize(), properties.getSampleRate());
+    }
+
+    @Bean
+    public RequestTimingEndpoint requestTimingEndpoint(RequestTimingRecorder recorder) {
+        return new RequestTimingEndpoint(recorder);
+    }
+
+    @Bean
+    @Order(WebFilterOrder.REQUEST_TIMING)
+    public RequestTimingFilter requestTimingFilter(RequestTimingRecorder recorder) {
+        return new RequestTimingFilter(recorder);
+    }
+
+    @Bean
+    @Order(WebFilterOrder.SECURITY_TIMING)
+    public SecurityTimingFilter securityTimingFilter() {
+        return new SecurityTimingFilter();
+    }
+
+    @Bean
+    @Order(1)
+    public CodecCustomizer timingCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new TimingJackson2JsonEncoder(objectMapper));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+    private boolean enabled = false;
+    /**
+     * Fraction of traced requests kept in the ring buffer behind /actuator/timings.
+     */
+    private double sampleRate = 0.01;
+    private int bufferSize = 256;
+}
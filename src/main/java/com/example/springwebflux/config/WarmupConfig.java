@@ -0,0 +1,64 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.filter.StartupLatencyFilter;
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.repository.AnimeRepository;
+import com.example.springwebflux.service.TokenService;
+import com.example.springwebflux.warmup.WarmupRunner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true")
+    public WarmupRunner warmupRunner(WarmupProperties properties, ObjectProvider<ConnectionFactory> connectionFactories,
+                                     AnimeRepository animeRepository, TokenService tokenService,
+                                     WebClient.Builder webClientBuilder, Environment environment,
+                                     MeterRegistry meterRegistry) {
+        List<ConnectionPool> pools = connectionFactories.stream()
+                .map(WarmupConfig::unwrap)
+                .filter(ConnectionPool.class::isInstance)
+                .map(ConnectionPool.class::cast)
+                .collect(Collectors.toList());
+        Timer timer = Timer.builder("application.warmup")
+                .description("Time the warm-up held back readiness")
+                .register(meterRegistry);
+        return new WarmupRunner(properties, pools, animeRepository, tokenService, webClientBuilder, environment, timer);
+    }
+
+    // Without warm-up this shows the cold start it would have absorbed.
+    @Bean
+    @Order(WebFilterOrder.STARTUP_LATENCY)
+    public StartupLatencyFilter startupLatencyFilter(WarmupProperties properties, MeterRegistry meterRegistry) {
+        Timer timer = Timer.builder("http.server.requests.startup")
+                .description("Latency of requests served right after the application reported ready")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        return new StartupLatencyFilter(timer, properties.getObservationWindow());
+    }
+
+    private static Object unwrap(ConnectionFactory connectionFactory) {
+        Object unwrapped = connectionFactory;
+        while (unwrapped instanceof Wrapped && !(unwrapped instanceof ConnectionPool)) {
+            unwrapped = ((Wrapped<?>) unwrapped).unwrap();
+        }
+        return unwrapped;
+    }
+}
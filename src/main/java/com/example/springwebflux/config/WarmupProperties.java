@@ -0,0 +1,31 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+    private boolean enabled = false;
+    /**
+     * Rounds of synthetic requests sent before the application reports ready.
+     */
+    private int iterations = 200;
+    private int concurrency = 4;
+    /**
+     * Anime ids requested in every round, besides the full list.
+     */
+    private List<Integer> hotIds = new ArrayList<>();
+    /**
+     * Longest the warm-up may hold back readiness; after that the application reports ready anyway.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+    /**
+     * How long after readiness requests are recorded in http.server.requests.startup.
+     */
+    private Duration observationWindow = Duration.ofMinutes(1);
+}
@@ -0,0 +1,103 @@
+package com.example.springwebflux.config;
+
+import com.example.springwebflux.filter.WebFilterOrder;
+import com.example.springwebflux.filter.WorkloadLaneFilter;
+import com.example.springwebflux.limit.AsyncPermits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties({WorkloadLaneProperties.class, R2dbcProperties.class, PersistenceProperties.class})
+@ConditionalOnProperty(prefix = "app.workload-lanes", name = "enabled", havingValue = "true")
+public class WorkloadLaneConfig {
+    private static final String R2DBC = "r2dbc";
+    private static final String JDBC = "jdbc";
+    private static final String SHARDED = "sharded";
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler bulkScheduler(WorkloadLaneProperties properties) {
+        return Schedulers.newParallel("bulk", properties.getBulk().getThreads());
+    }
+
+    @Bean
+    @Order(WebFilterOrder.WORKLOAD_LANE)
+    public WorkloadLaneFilter workloadLaneFilter(WorkloadLaneProperties properties, R2dbcProperties r2dbcProperties,
+                                                 PersistenceProperties persistence,
+                                                 @Qualifier("bulkScheduler") Scheduler bulkScheduler,
+                                                 MeterRegistry meterRegistry) {
+        int reserved = properties.getInteractive().getReservedConnections();
+        PersistenceProperties.Engine engine = persistence.getEngine();
+        List<String> engineRoutes = properties.getBulk().getEngineRoutes();
+        // One lane per connection pool, holding every bulk route that draws from it.
+        Map<String, WorkloadLaneFilter.Lane> lanes = new HashMap<>();
+        if (engine != PersistenceProperties.Engine.SHARDED) {
+            boolean engineOnR2dbc = engine == PersistenceProperties.Engine.R2DBC;
+            addLane(lanes, R2DBC, routes(properties.getBulk().getRoutes(), engineOnR2dbc ? engineRoutes : List.of()),
+                    permits("spring.r2dbc.pool.max-size", r2dbcProperties.getPool().getMaxSize(), reserved),
+                    properties.getBulk().getMaxQueued(), meterRegistry);
+        }
+        // The JDBC pool only serves interactive requests when it is the persistence engine.
+        if (persistence.getJdbc().getUrl() != null) {
+            boolean engineOnJdbc = engine == PersistenceProperties.Engine.JDBC;
+            addLane(lanes, JDBC, routes(properties.getCopy().getRoutes(), engineOnJdbc ? engineRoutes : List.of()),
+                    permits("app.persistence.jdbc.maximum-pool-size", persistence.getJdbc().getMaximumPoolSize(),
+                            engineOnJdbc ? reserved : 0),
+                    properties.getCopy().getMaxQueued(), meterRegistry);
+        }
+        if (engine == PersistenceProperties.Engine.SHARDED) {
+            addLane(lanes, SHARDED, engineRoutes, permits("app.persistence.sharding.max-pool-size",
+                    persistence.getSharding().getMaxPoolSize(), reserved),
+                    properties.getBulk().getMaxQueued(), meterRegistry);
+        }
+        return new WorkloadLaneFilter(lanes, bulkScheduler);
+    }
+
+    private static List<String> routes(List<String> routes, List<String> engineRoutes) {
+        List<String> all = new ArrayList<>(routes);
+        all.addAll(engineRoutes);
+        return all;
+    }
+
+    private static int permits(String poolSizeProperty, int poolSize, int reserved) {
+        int permits = poolSize - reserved;
+        if (permits < 1) {
+            throw new IllegalStateException("app.workload-lanes.interactive.reserved-connections must be below "
+                    + poolSizeProperty + " (" + poolSize + ")");
+        }
+        return permits;
+    }
+
+    private static void addLane(Map<String, WorkloadLaneFilter.Lane> lanes, String name, List<String> routes,
+                                int permits, int maxQueued, MeterRegistry meterRegistry) {
+        AsyncPermits lanePermits = new AsyncPermits(permits, maxQueued);
+        Gauge.builder("workload.lane.permits", () -> permits)
+                .tag("lane", name)
+                .register(meterRegistry);
+        Gauge.builder("workload.lane.in-use", lanePermits, AsyncPermits::getInUse)
+                .tag("lane", name)
+                .register(meterRegistry);
+        Gauge.builder("workload.lane.queued", lanePermits, AsyncPermits::getQueued)
+                .tag("lane", name)
+                .register(meterRegistry);
+        Counter rejections = Counter.builder("workload.lane.rejected")
+                .tag("lane", name)
+                .register(meterRegistry);
+        WorkloadLaneFilter.Lane lane = new WorkloadLaneFilter.Lane(name, lanePermits, rejections);
+        routes.forEach(route -> lanes.put(route, lane));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springwebflux.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.workload-lanes")
+public class WorkloadLaneProperties {
+    private boolean enabled = false;
+    private Interactive interactive = new Interactive();
+    private Bulk bulk = new Bulk();
+    private Copy copy = new Copy();
+
+    @Data
+    public static class Interactive {
+        /**
+         * Connections of each pool serving interactive requests that the bulk lanes may never take: always on the
+         * R2DBC pool and on every shard's pool, and on the JDBC pool when app.persistence.engine=jdbc.
+         */
+        private int reservedConnections = 4;
+    }
+
+    @Data
+    public static class Bulk {
+        /**
+         * Requests always running on the R2DBC pool, as "METHOD /path"; they share spring.r2dbc.pool.max-size minus
+         * the reserved connections.
+         */
+        private List<String> routes = List.of("PUT /anime/batch");
+        /**
+         * Requests writing through app.persistence.engine, as "METHOD /path"; they join the lane of the pool that
+         * engine uses: R2DBC, JDBC (with the copy routes) or the shards' pools (app.persistence.sharding.max-pool-size
+         * minus the reserved connections).
+         */
+        private List<String> engineRoutes = List.of("POST /anime/batch");
+        /**
+         * Threads decoding and processing bulk and copy requests, so large bodies stay off the event loops.
+         */
+        private int threads = 2;
+        /**
+         * Requests waiting for a free permit of the R2DBC or sharded lane before further ones are rejected with 503.
+         */
+        private int maxQueued = 16;
+    }
+
+    @Data
+    public static class Copy {
+        /**
+         * COPY requests running on the JDBC pool, as "METHOD /path"; they share app.persistence.jdbc.maximum-pool-size,
+         * minus the reserved connections when that pool also serves interactive requests.
+         */
+        private List<String> routes = List.of("POST /anime/import", "GET /anime/export");
+        private int maxQueued = 16;
+    }
+}
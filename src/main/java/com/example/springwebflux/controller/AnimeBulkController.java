@@ -0,0 +1,27 @@
+package com.example.springwebflux.controller;
+
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.Anime;
+import com.example.springwebflux.domain.AnimeUpsertResult;
+import com.example.springwebflux.service.AnimeBulkService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/anime")
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeBulkController {
+    private final AnimeBulkService animeBulkService;
+
+    @PutMapping(path = "batch")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<AnimeUpsertResult> upsertBatch(@RequestBody List<Anime> animeList) {
+        return animeBulkService.upsertAll(animeList);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.springwebflux.controller;
+
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.AnimeImportResult;
+import com.example.springwebflux.service.AnimeCopyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/anime")
+@ConditionalOnProperty(prefix = "app.persistence.jdbc", name = "url")
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeCopyController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final AnimeCopyService animeCopyService;
+
+    @GetMapping(path = "export")
+    public ResponseEntity<Flux<DataBuffer>> export(@RequestParam(defaultValue = AnimeCopyService.CSV) String format,
+                                                   ServerHttpResponse response) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("anime.csv").build().toString())
+                .body(animeCopyService.export(format, response.bufferFactory()));
+    }
+
+    @PostMapping(path = "import", consumes = TEXT_CSV_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<AnimeImportResult> importCsv(@RequestBody Flux<String> lines) {
+        return animeCopyService.importCsv(lines);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.springwebflux.controller;
+
+import com.example.springwebflux.domain.AccessToken;
+import com.example.springwebflux.service.TokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+    private final TokenService tokenService;
+
+    @PostMapping(path = "token")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<AccessToken> token(Authentication authentication) {
+        return Mono.fromSupplier(() -> tokenService.issue(authentication));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+@Value
+public class AccessToken {
+    String token;
+    String tokenType;
+    long expiresIn;
+}
@@ -0,0 +1,13 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+@Value
+public class AnimeImportResult {
+    long imported;
+    long rejected;
+    /**
+     * Valid rows whose name already existed or appeared earlier in the same upload.
+     */
+    long skipped;
+}
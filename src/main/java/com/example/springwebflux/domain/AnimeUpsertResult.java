@@ -0,0 +1,16 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+@Value
+public class AnimeUpsertResult {
+    public static final AnimeUpsertResult EMPTY = new AnimeUpsertResult(0, 0, 0);
+
+    int inserted;
+    int updated;
+    int unchanged;
+
+    public AnimeUpsertResult plus(AnimeUpsertResult other) {
+        return new AnimeUpsertResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+@Value
+public class IdempotentResponse {
+    int status;
+    String contentType;
+    byte[] body;
+    /**
+     * Hash of the method, path and body of the request that produced this response.
+     */
+    String fingerprint;
+}
@@ -0,0 +1,16 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Value
+public class RequestTimingSample {
+    Instant timestamp;
+    String method;
+    String path;
+    Integer status;
+    double totalMillis;
+    Map<String, Double> phaseMillis;
+}
@@ -0,0 +1,18 @@
+package com.example.springwebflux.domain;
+
+import lombok.Value;
+
+@Value
+public class StatementStatistics {
+    String sql;
+    long executions;
+    long slowExecutions;
+    long rows;
+    double totalMillis;
+    double meanMillis;
+    double maxMillis;
+    /**
+     * Time between the first and the last row, paced by whoever consumes them.
+     */
+    double totalDrainMillis;
+}
@@ -0,0 +1,73 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.LoggingProperties;
+import com.example.springwebflux.logging.RequestLog;
+import com.example.springwebflux.tracing.RequestTiming;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@RequiredArgsConstructor
+public class AccessLogFilter implements WebFilter {
+    private final LoggingProperties.AccessLog properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        RequestLog requestLog = new RequestLog(ThreadLocalRandom.current().nextDouble() < properties.getSampleRate(),
+                properties.getMaxStatements());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        return chain.filter(exchange)
+                .doOnError(failure::set)
+                .doFinally(signal -> log(exchange, requestLog, signal, failure.get(), System.nanoTime() - start))
+                .contextWrite(context -> context.put(RequestLog.class, requestLog));
+    }
+
+    private void log(ServerWebExchange exchange, RequestLog requestLog, SignalType signal, Throwable failure, long elapsedNanos) {
+        int status = status(exchange, failure);
+        // Shed requests come in bursts and are already counted by the limiters, so they are logged like 4xx.
+        boolean failed = status >= 500 && exchange.getAttribute(ConcurrencyLimitFilter.SHED_ATTRIBUTE) == null;
+        boolean slow = elapsedNanos >= properties.getSlowThreshold().toNanos();
+        if (!failed && !slow && !requestLog.isSampled()) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String outcome = signal == SignalType.CANCEL ? "cancelled" : String.valueOf(status);
+        List<String> statements = requestLog.statements();
+        if (failed || slow) {
+            log.warn("{} {} {} in {} ms{}", request.getMethodValue(), request.getPath().value(), outcome,
+                    RequestTiming.millis(elapsedNanos), sql(statements), failure);
+        } else {
+            log.info("{} {} {} in {} ms{}", request.getMethodValue(), request.getPath().value(), outcome,
+                    RequestTiming.millis(elapsedNanos), sql(statements));
+        }
+    }
+
+    // Errors reach the exception handler after the filters, so the response status is not set yet.
+    private static int status(ServerWebExchange exchange, Throwable failure) {
+        if (failure instanceof ResponseStatusException) {
+            return ((ResponseStatusException) failure).getRawStatusCode();
+        }
+        if (failure != null) {
+            return HttpStatus.INTERNAL_SERVER_ERROR.value();
+        }
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status == null ? HttpStatus.OK.value() : status;
+    }
+
+    private static String sql(List<String> statements) {
+        return statements.isEmpty() ? "" : "\n  " + String.join("\n  ", statements);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.ConcurrencyLimitProperties;
+import com.example.springwebflux.limit.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter implements WebFilter {
+    /**
+     * Set on requests rejected to shed load, which are counted by the limiters rather than logged as failures.
+     */
+    public static final String SHED_ATTRIBUTE = ConcurrencyLimitFilter.class.getName() + ".shed";
+    private static final String ANIME_PATH = "/anime";
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+    private final Map<String, Counter> rejections;
+    private final Set<String> excludedRoutes;
+    private final Duration retryAfter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String group = group(exchange.getRequest());
+        AdaptiveConcurrencyLimit limit = group == null ? null : limits.get(group);
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+        if (!limit.tryAcquire()) {
+            rejections.get(group).increment();
+            exchange.getAttributes().put(SHED_ATTRIBUTE, Boolean.TRUE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent " + group + ", try again later"));
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean overloaded = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(error -> overloaded.set(isOverload(error)))
+                .doFinally(signal -> {
+                    long rttNanos = System.nanoTime() - start;
+                    if (signal == SignalType.CANCEL) {
+                        limit.onIgnored();
+                    } else if (overloaded.get()) {
+                        limit.onDropped(rttNanos);
+                    } else {
+                        limit.onSuccess(rttNanos);
+                    }
+                });
+    }
+
+    private String group(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.equals(ANIME_PATH) && !path.startsWith(ANIME_PATH + "/")
+                || excludedRoutes.contains(request.getMethodValue() + " " + path)) {
+            return null;
+        }
+        HttpMethod method = request.getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD
+                ? ConcurrencyLimitProperties.READS
+                : ConcurrencyLimitProperties.WRITES;
+    }
+
+    // Client errors are normal completions; server errors and timeouts mean the backend is struggling.
+    private static boolean isOverload(Throwable error) {
+        return !(error instanceof ResponseStatusException)
+                || ((ResponseStatusException) error).getStatus().is5xxServerError();
+    }
+}
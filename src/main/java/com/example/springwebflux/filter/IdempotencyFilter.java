@@ -0,0 +1,201 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.IdempotencyProperties;
+import com.example.springwebflux.domain.IdempotentResponse;
+import com.example.springwebflux.repository.IdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter implements WebFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String key = request.getHeaders().getFirst(IDEMPOTENCY_KEY);
+        if (key == null
+                || request.getMethod() != HttpMethod.POST
+                || !properties.getPaths().contains(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + IDEMPOTENCY_KEY + " header"));
+        }
+
+        // The body is read up front so the key can be bound to the request it was first used with.
+        int maxBodySize = (int) properties.getMaxBodySize().toBytes();
+        if (request.getHeaders().getContentLength() > maxBodySize) {
+            return Mono.error(bodyTooLarge());
+        }
+        return DataBufferUtils.join(request.getBody(), maxBodySize)
+                .map(IdempotencyFilter::bytes)
+                .defaultIfEmpty(new byte[0])
+                .onErrorMap(DataBufferLimitException.class, error -> bodyTooLarge())
+                .flatMap(body -> exchange.getPrincipal()
+                        .map(Principal::getName)
+                        .defaultIfEmpty("")
+                        .flatMap(principal -> process(withBody(exchange, body), chain,
+                                scope(principal, request.getPath().value(), key), fingerprint(request, body))));
+    }
+
+    private Mono<Void> process(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint) {
+        return idempotencyStore.claim(key)
+                .flatMap(claimed -> claimed
+                        ? execute(exchange, chain, key, fingerprint)
+                        : idempotencyStore.await(key)
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMap(stored -> stored.isPresent()
+                                    ? replay(exchange, stored.get(), fingerprint)
+                                    : process(exchange, chain, key, fingerprint)));
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, WebFilterChain chain, String key, String fingerprint) {
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), fingerprint,
+                (int) properties.getMaxBodySize().toBytes());
+        return chain.filter(exchange.mutate().response(response).build())
+                .then(Mono.defer(() -> response.isReplayable()
+                        ? idempotencyStore.complete(key, response.toIdempotentResponse())
+                        : idempotencyStore.release(key)))
+                .onErrorResume(error -> idempotencyStore.release(key).then(Mono.error(error)))
+                .doOnCancel(() -> idempotencyStore.release(key).subscribe(null,
+                        error -> log.warn("Could not release idempotency key {}", key, error)));
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, IdempotentResponse stored, String fingerprint) {
+        if (!fingerprint.equals(stored.getFingerprint())) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY + " was already used for a different request"));
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.getHeaders().setContentType(MediaType.parseMediaType(stored.getContentType()));
+        }
+        response.getHeaders().set(IDEMPOTENT_REPLAYED, "true");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stored.getBody())));
+    }
+
+    private static ServerWebExchange withBody(ServerWebExchange exchange, byte[] body) {
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }
+        };
+        return exchange.mutate().request(request).build();
+    }
+
+    static String fingerprint(ServerHttpRequest request, byte[] body) {
+        return digest((request.getMethodValue() + " " + request.getPath().value() + "\n").getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    // Each part is hashed on its own so no principal, path or key can spill into its neighbour.
+    static String scope(String principal, String path, String key) {
+        return Stream.of(principal, path, key)
+                .map(part -> digest(part.getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining(":"));
+    }
+
+    private static String digest(byte[]... chunks) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] chunk : chunks) {
+                digest.update(chunk);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseStatusException bodyTooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Request body too large for " + IDEMPOTENCY_KEY + " handling");
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private static class CapturingResponse extends ServerHttpResponseDecorator {
+        private final String fingerprint;
+        private final int maxBodySize;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean oversized;
+
+        private CapturingResponse(ServerHttpResponse delegate, String fingerprint, int maxBodySize) {
+            super(delegate);
+            this.fingerprint = fingerprint;
+            this.maxBodySize = maxBodySize;
+        }
+
+        // The body streams through untouched; a copy is kept only while it fits in maxBodySize.
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::capture));
+        }
+
+        private void capture(DataBuffer buffer) {
+            int count = buffer.readableByteCount();
+            if (oversized || body.size() + count > maxBodySize) {
+                oversized = true;
+                body.reset();
+                return;
+            }
+            byte[] bytes = new byte[count];
+            buffer.asByteBuffer().get(bytes);
+            body.write(bytes, 0, count);
+        }
+
+        // Replies too large to keep are not replayed; the key is released so a retry runs again.
+        private boolean isReplayable() {
+            Integer status = getRawStatusCode();
+            return !oversized && (status == null || HttpStatus.Series.resolve(status) == HttpStatus.Series.SUCCESSFUL);
+        }
+
+        private IdempotentResponse toIdempotentResponse() {
+            MediaType contentType = getHeaders().getContentType();
+            Integer status = getRawStatusCode();
+            return new IdempotentResponse(status == null ? HttpStatus.OK.value() : status,
+                    contentType == null ? null : contentType.toString(), body.toByteArray(), fingerprint);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.domain.RequestTimingSample;
+import com.example.springwebflux.tracing.RequestTiming;
+import com.example.springwebflux.tracing.RequestTimingRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+public class RequestTimingFilter implements WebFilter {
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final RequestTimingRecorder recorder;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestTiming timing = new RequestTiming();
+        exchange.getAttributes().put(RequestTiming.ATTRIBUTE, timing);
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> Mono.fromRunnable(() ->
+                response.getHeaders().set(SERVER_TIMING, timing.toServerTiming())));
+
+        return chain.filter(exchange)
+                .doFinally(signal -> recorder.offer(() -> sample(exchange, timing)))
+                .contextWrite(context -> context.put(RequestTiming.class, timing));
+    }
+
+    private RequestTimingSample sample(ServerWebExchange exchange, RequestTiming timing) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new RequestTimingSample(Instant.now(),
+                request.getMethodValue(),
+                pattern == null ? request.getPath().value() : pattern.getPatternString(),
+                exchange.getResponse().getRawStatusCode(),
+                RequestTiming.millis(timing.elapsedNanos()),
+                timing.phaseMillis());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.tracing.Phase;
+import com.example.springwebflux.tracing.RequestTiming;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+public class SecurityTimingFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestTiming timing = exchange.getAttribute(RequestTiming.ATTRIBUTE);
+        if (timing != null) {
+            timing.recordSinceRequestStart(Phase.SECURITY);
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springwebflux.filter;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Records the latency of real traffic during the first moments after readiness (warm-up requests come before it),
+// which is what the warm-up is meant to improve.
+public class StartupLatencyFilter implements WebFilter, ApplicationListener<ApplicationReadyEvent> {
+    private final Timer timer;
+    private final long windowNanos;
+    private volatile long readyAtNanos;
+    private volatile boolean ready;
+
+    public StartupLatencyFilter(Timer timer, Duration window) {
+        this.timer = timer;
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        readyAtNanos = System.nanoTime();
+        ready = true;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        if (!ready || start - readyAtNanos > windowNanos) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+}
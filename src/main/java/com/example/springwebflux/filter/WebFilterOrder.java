@@ -0,0 +1,27 @@
+package com.example.springwebflux.filter;
+
+import org.springframework.core.Ordered;
+
+public final class WebFilterOrder {
+    /**
+     * Order of Spring Security's WebFilterChainProxy.
+     */
+    public static final int SECURITY = -100;
+
+    public static final int REQUEST_TIMING = Ordered.HIGHEST_PRECEDENCE;
+    public static final int ACCESS_LOG = REQUEST_TIMING + 1;
+    public static final int STARTUP_LATENCY = ACCESS_LOG + 1;
+    public static final int SECURITY_TIMING = SECURITY + 1;
+    /**
+     * After security, so unauthenticated requests never hold or wait for a bulk permit.
+     */
+    public static final int WORKLOAD_LANE = SECURITY + 2;
+    /**
+     * After security, so unauthenticated requests neither take permits nor feed latency samples.
+     */
+    public static final int CONCURRENCY_LIMIT = WORKLOAD_LANE + 1;
+    public static final int IDEMPOTENCY = 0;
+
+    private WebFilterOrder() {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.limit.AsyncPermits;
+import io.micrometer.core.instrument.Counter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+
+// Bulk requests take a permit of their lane, sized below the connection pool the lane's routes use, so interactive
+// requests always find a connection. They run on their own scheduler so decoding large bodies does not hold up the
+// event loops.
+@RequiredArgsConstructor
+public class WorkloadLaneFilter implements WebFilter {
+    private final Map<String, Lane> lanesByRoute;
+    private final Scheduler bulkScheduler;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Lane lane = lanesByRoute.get(request.getMethodValue() + " " + request.getPath().pathWithinApplication().value());
+        if (lane == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchange bulkExchange = exchange.mutate()
+                .request(new ServerHttpRequestDecorator(request) {
+                    @Override
+                    public Flux<DataBuffer> getBody() {
+                        return super.getBody().publishOn(bulkScheduler);
+                    }
+                })
+                .build();
+        return lane.permits.acquire()
+                .onErrorMap(AsyncPermits.PermitsExhaustedException.class, e -> {
+                    lane.rejections.increment();
+                    exchange.getAttributes().put(ConcurrencyLimitFilter.SHED_ATTRIBUTE, Boolean.TRUE);
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Too many bulk requests on the " + lane.name + " pool, try again later", e);
+                })
+                .then(Mono.defer(() -> chain.filter(bulkExchange)
+                        .subscribeOn(bulkScheduler)
+                        .doFinally(signal -> lane.permits.release())));
+    }
+
+    @Value
+    public static class Lane {
+        String name;
+        AsyncPermits permits;
+        Counter rejections;
+    }
+}
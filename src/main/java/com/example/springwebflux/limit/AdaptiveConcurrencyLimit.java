@@ -0,0 +1,101 @@
+package com.example.springwebflux.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient limit driven by latency. The baseline is the lowest mean latency of a window of samples; it only rises
+// (by smoothing) after windows in which the group was mostly idle, so load never drags it up with it. A fast sample
+// grows the limit by one, but only while at least half of the limit is in flight, so an idle group does not drift to
+// maxLimit. When a window's mean exceeds tolerance x the baseline the limit shrinks by the ratio between the two (at
+// most halving it), and a failed request shrinks it by backoffRatio right away. Single slow requests never count.
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final double smoothing;
+    private final int windowSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double baselineRttNanos;
+    private long windowRttNanos;
+    private int windowSamples;
+    private boolean windowBusy;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double backoffRatio, double tolerance, double smoothing, int windowSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.windowSize = windowSize;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        onSample(rttNanos, inFlight.getAndDecrement(), false);
+    }
+
+    public void onDropped(long rttNanos) {
+        onSample(rttNanos, inFlight.getAndDecrement(), true);
+    }
+
+    // Cancelled requests say nothing about the backend, so they only give their permit back.
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // inFlight includes the request the sample belongs to.
+    private synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        boolean busy = inFlight * 2 >= limit;
+        if (dropped) {
+            shrink(backoffRatio);
+        } else if (busy && (baselineRttNanos == 0 || rttNanos <= baselineRttNanos * tolerance)) {
+            estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+        }
+
+        windowRttNanos += rttNanos;
+        windowBusy |= busy;
+        if (++windowSamples >= windowSize) {
+            double meanRttNanos = (double) windowRttNanos / windowSamples;
+            if (baselineRttNanos > 0 && meanRttNanos > baselineRttNanos * tolerance) {
+                shrink(Math.max(0.5, baselineRttNanos * tolerance / meanRttNanos));
+            }
+            if (baselineRttNanos == 0 || meanRttNanos < baselineRttNanos) {
+                baselineRttNanos = meanRttNanos;
+            } else if (!windowBusy) {
+                baselineRttNanos += (meanRttNanos - baselineRttNanos) * smoothing;
+            }
+            windowRttNanos = 0;
+            windowSamples = 0;
+            windowBusy = false;
+        }
+        limit = (int) estimatedLimit;
+    }
+
+    private void shrink(double ratio) {
+        estimatedLimit = Math.max(minLimit, estimatedLimit * ratio);
+    }
+}
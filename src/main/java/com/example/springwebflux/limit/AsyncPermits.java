@@ -0,0 +1,100 @@
+package com.example.springwebflux.limit;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking semaphore: acquire() completes once a permit is free, waiting in FIFO order without holding a thread.
+public class AsyncPermits {
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final int permits;
+    private final int maxQueued;
+    private final Queue<Waiter> waiting = new ArrayDeque<>();
+    private int available;
+
+    public AsyncPermits(int permits, int maxQueued) {
+        this.permits = permits;
+        this.maxQueued = maxQueued;
+        this.available = permits;
+    }
+
+    public Mono<Void> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            synchronized (this) {
+                if (available > 0) {
+                    available--;
+                    waiter.state.set(GRANTED);
+                } else if (waiting.size() < maxQueued) {
+                    waiting.add(waiter);
+                } else {
+                    waiter = null;
+                }
+            }
+            if (waiter == null) {
+                sink.error(new PermitsExhaustedException(permits, maxQueued));
+            } else if (waiter.state.get() == GRANTED) {
+                sink.success();
+            } else {
+                Waiter queued = waiter;
+                sink.onCancel(() -> cancel(queued));
+            }
+        });
+    }
+
+    public void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            if (next.state.compareAndSet(WAITING, GRANTED)) {
+                next.sink.success();
+                return;
+            }
+        }
+    }
+
+    public synchronized int getInUse() {
+        return permits - available;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                waiting.remove(waiter);
+            }
+        } else if (waiter.state.get() == GRANTED) {
+            release();
+        }
+    }
+
+    private static class Waiter {
+        private final MonoSink<Void> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+
+    public static class PermitsExhaustedException extends RuntimeException {
+        public PermitsExhaustedException(int permits, int maxQueued) {
+            super("All " + permits + " permits are in use and " + maxQueued + " callers are already waiting");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.springwebflux.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// AsyncAppender that never blocks the logging thread: when the queue is full the event is dropped and counted.
+// Configured in logback-spring.xml; the count is exported as logging.async.dropped.
+public class DroppingAsyncAppender extends AsyncAppender {
+    private final LongAdder dropped = new LongAdder();
+    private final Object offerLock = new Object();
+
+    public DroppingAsyncAppender() {
+        setNeverBlock(true);
+        setDiscardingThreshold(0);
+    }
+
+    // With neverBlock the base class ignores a failed offer, so the capacity check and the offer happen under one
+    // lock: only the worker takes from the queue meanwhile, hence an offer after a non-zero capacity cannot fail.
+    // The event is prepared before taking the lock, which makes the second preprocess in super.append cheap.
+    @Override
+    protected void append(ILoggingEvent event) {
+        preprocess(event);
+        synchronized (offerLock) {
+            if (isStarted() && getRemainingCapacity() == 0) {
+                dropped.increment();
+                return;
+            }
+            super.append(event);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springwebflux.logging;
+
+import com.example.springwebflux.tracing.RequestTiming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Per-request log buffer carried in the Reactor context. SQL statements are collected for every request but only
+// formatted and written out by AccessLogFilter when the request is sampled, failed or was slow.
+public class RequestLog {
+    private final boolean sampled;
+    private final int maxStatements;
+    private final List<Entry> statements = new ArrayList<>();
+    private int omittedStatements;
+
+    public RequestLog(boolean sampled, int maxStatements) {
+        this.sampled = sampled;
+        this.maxStatements = maxStatements;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public synchronized void statement(String sql, long executionNanos, long drainNanos, long rows,
+                                       Map<String, String> bindShape) {
+        if (statements.size() < maxStatements) {
+            statements.add(new Entry(sql, executionNanos, drainNanos, rows, bindShape));
+        } else {
+            omittedStatements++;
+        }
+    }
+
+    public synchronized List<String> statements() {
+        List<String> lines = new ArrayList<>();
+        for (Entry statement : statements) {
+            lines.add(RequestTiming.millis(statement.executionNanos) + " ms + " + RequestTiming.millis(statement.drainNanos)
+                    + " ms draining, " + statement.rows + " rows: "
+                    + statement.sql.replaceAll("\\s+", " ").trim() + " binds " + statement.bindShape);
+        }
+        if (omittedStatements > 0) {
+            lines.add(omittedStatements + " more statements omitted");
+        }
+        return lines;
+    }
+
+    private static class Entry {
+        private final String sql;
+        private final long executionNanos;
+        private final long drainNanos;
+        private final long rows;
+        private final Map<String, String> bindShape;
+
+        private Entry(String sql, long executionNanos, long drainNanos, long rows, Map<String, String> bindShape) {
+            this.sql = sql;
+            this.executionNanos = executionNanos;
+            this.drainNanos = drainNanos;
+            this.rows = rows;
+            this.bindShape = bindShape;
+        }
+    }
+}
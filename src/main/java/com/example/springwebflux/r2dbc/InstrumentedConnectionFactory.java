@@ -0,0 +1,49 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.logging.RequestLog;
+import com.example.springwebflux.tracing.Phase;
+import com.example.springwebflux.tracing.RequestTiming;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class InstrumentedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+    private final ConnectionFactory delegate;
+    @Nullable
+    private final SqlStatistics sqlStatistics;
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            RequestTiming timing = context.getOrDefault(RequestTiming.class, null);
+            RequestLog requestLog = context.getOrDefault(RequestLog.class, null);
+            if (timing == null && sqlStatistics == null && requestLog == null) {
+                return Mono.from(delegate.create());
+            }
+            long start = System.nanoTime();
+            return Mono.from(delegate.create())
+                    .map(connection -> {
+                        if (timing != null) {
+                            timing.recordSince(Phase.ACQUIRE, start);
+                        }
+                        return new InstrumentedConnection(connection, timing, sqlStatistics, requestLog);
+                    });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.logging.RequestLog;
+import com.example.springwebflux.tracing.Phase;
+import com.example.springwebflux.tracing.RequestTiming;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+public class InstrumentedStatement implements Statement, Wrapped<Statement> {
+    private static final long NO_SIGNAL = Long.MIN_VALUE;
+
+    private final Statement delegate;
+    private final String sql;
+    @Nullable
+    private final RequestTiming timing;
+    @Nullable
+    private final SqlStatistics sqlStatistics;
+    @Nullable
+    private final RequestLog requestLog;
+    @Nullable
+    private final Map<String, String> bindShape;
+
+    public InstrumentedStatement(Statement delegate, String sql,
+                                 @Nullable RequestTiming timing, @Nullable SqlStatistics sqlStatistics,
+                                 @Nullable RequestLog requestLog) {
+        this.delegate = delegate;
+        this.sql = sql;
+        this.timing = timing;
+        this.sqlStatistics = sqlStatistics;
+        this.requestLog = requestLog;
+        this.bindShape = sqlStatistics == null && requestLog == null ? null : new TreeMap<>();
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.from(delegate.execute())
+                    .map(result -> new InstrumentedResult(result, start));
+        });
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        return recordBind(String.valueOf(index), value.getClass());
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        return recordBind(name, value.getClass());
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        return recordBind(String.valueOf(index), type);
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        return recordBind(name, type);
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Statement unwrap() {
+        return delegate;
+    }
+
+    private Statement recordBind(String marker, Class<?> type) {
+        if (bindShape != null) {
+            bindShape.put(marker, type.getSimpleName());
+        }
+        return this;
+    }
+
+    // The database's share ends with the first row or update count; the rest of the stream is paced by the subscriber
+    // and is recorded apart as drain time.
+    private void completed(long start, long firstSignal, long rows) {
+        long end = System.nanoTime();
+        long execution = (firstSignal == NO_SIGNAL ? end : firstSignal) - start;
+        long drain = firstSignal == NO_SIGNAL ? 0 : end - firstSignal;
+        if (timing != null) {
+            timing.record(Phase.DB, execution);
+        }
+        if (sqlStatistics != null) {
+            sqlStatistics.record(sql, execution, drain, rows, bindShape);
+        }
+        if (requestLog != null) {
+            requestLog.statement(sql, execution, drain, rows, bindShape);
+        }
+    }
+
+    private class InstrumentedResult implements Result, Wrapped<Result> {
+        private final Result result;
+        private final long start;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong firstSignal = new AtomicLong(NO_SIGNAL);
+
+        private InstrumentedResult(Result result, long start) {
+            this.result = result;
+            this.start = start;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return Flux.from(result.getRowsUpdated())
+                    .doOnNext(count -> {
+                        firstSignal.compareAndSet(NO_SIGNAL, System.nanoTime());
+                        rows.addAndGet(count);
+                    })
+                    .doFinally(signal -> completed(start, firstSignal.get(), rows.get()));
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.<T>from(result.map(mappingFunction))
+                    .doOnNext(row -> {
+                        if (rows.getAndIncrement() == 0) {
+                            firstSignal.compareAndSet(NO_SIGNAL, System.nanoTime());
+                        }
+                    })
+                    .doFinally(signal -> completed(start, firstSignal.get(), rows.get()));
+        }
+
+        @Override
+        public Result unwrap() {
+            return result;
+        }
+    }
+}
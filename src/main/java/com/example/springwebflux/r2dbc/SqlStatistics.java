@@ -0,0 +1,112 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.config.SqlStatisticsProperties;
+import com.example.springwebflux.domain.StatementStatistics;
+import com.example.springwebflux.tracing.RequestTiming;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class SqlStatistics {
+    static final String OTHER_STATEMENTS = "<other>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern BIND_MARKER = Pattern.compile("\\$\\d+|:\\w+");
+    private static final Pattern REPEATED_ROWS = Pattern.compile("(\\(\\?(?:, \\?)*\\))(?:, \\(\\?(?:, \\?)*\\))+");
+
+    private final Map<String, Accumulator> statements = new ConcurrentHashMap<>();
+    // Shapes by SQL string, so the patterns run once per distinct statement rather than once per execution.
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+
+    public SqlStatistics(SqlStatisticsProperties properties) {
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.maxStatements = properties.getMaxStatements();
+    }
+
+    // executionNanos runs until the first row or update count arrived, drainNanos from there until the last was consumed.
+    public void record(String sql, long executionNanos, long drainNanos, long rows, Map<String, String> bindShape) {
+        String shape = cachedShapeOf(sql);
+        Accumulator accumulator = statements.get(shape);
+        if (accumulator == null) {
+            accumulator = statements.size() < maxStatements
+                    ? statements.computeIfAbsent(shape, key -> new Accumulator())
+                    : statements.computeIfAbsent(OTHER_STATEMENTS, key -> new Accumulator());
+        }
+        boolean slow = executionNanos >= slowThresholdNanos;
+        accumulator.add(executionNanos, drainNanos, rows, slow);
+        if (slow) {
+            log.warn("Slow SQL ({} ms to the first row, {} ms draining, {} rows): {} binds {}",
+                    RequestTiming.millis(executionNanos), RequestTiming.millis(drainNanos), rows, shape, bindShape);
+        }
+    }
+
+    public List<StatementStatistics> top(int limit, Comparator<StatementStatistics> order) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    // Statements built per call (e.g. one multi-row INSERT per chunk size) stop being cached past maxStatements.
+    private String cachedShapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = shapeOf(sql);
+            if (shapes.size() < maxStatements) {
+                shapes.putIfAbsent(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = BIND_MARKER.matcher(shape).replaceAll("?");
+        return REPEATED_ROWS.matcher(shape).replaceAll("$1, ...");
+    }
+
+    private static class Accumulator {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder slowExecutions = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder drainNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void add(long executionNanos, long drain, long rowCount, boolean slow) {
+            executions.increment();
+            rows.add(rowCount);
+            totalNanos.add(executionNanos);
+            drainNanos.add(drain);
+            maxNanos.accumulateAndGet(executionNanos, Math::max);
+            if (slow) {
+                slowExecutions.increment();
+            }
+        }
+
+        private StatementStatistics snapshot(String sql) {
+            long count = executions.sum();
+            long total = totalNanos.sum();
+            return new StatementStatistics(sql, count, slowExecutions.sum(), rows.sum(),
+                    RequestTiming.millis(total),
+                    count == 0 ? 0 : RequestTiming.millis(total / count),
+                    RequestTiming.millis(maxNanos.get()),
+                    RequestTiming.millis(drainNanos.sum()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.domain.StatementStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Endpoint(id = "sql")
+@RequiredArgsConstructor
+public class SqlStatisticsEndpoint {
+    private static final Map<String, Comparator<StatementStatistics>> ORDERS = Map.of(
+            "total", Comparator.comparingDouble(StatementStatistics::getTotalMillis),
+            "mean", Comparator.comparingDouble(StatementStatistics::getMeanMillis),
+            "max", Comparator.comparingDouble(StatementStatistics::getMaxMillis),
+            "drain", Comparator.comparingDouble(StatementStatistics::getTotalDrainMillis),
+            "executions", Comparator.comparingLong(StatementStatistics::getExecutions),
+            "rows", Comparator.comparingLong(StatementStatistics::getRows),
+            "slow", Comparator.comparingLong(StatementStatistics::getSlowExecutions));
+
+    private final SqlStatistics sqlStatistics;
+
+    @ReadOperation
+    public List<StatementStatistics> statements(@Nullable Integer limit, @Nullable String orderBy) {
+        Comparator<StatementStatistics> order = ORDERS.getOrDefault(orderBy == null ? "total" : orderBy, ORDERS.get("total"));
+        return sqlStatistics.top(limit == null ? 20 : limit, order);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.AnimeUpsertResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeBulkRepository {
+    private final DatabaseClient databaseClient;
+
+    // Inserts unknown names in one statement. A row skipped by the WHERE clause is not returned, which is how
+    // unchanged rows are told apart; xmax is 0 only for rows this statement inserted.
+    public Mono<AnimeUpsertResult> upsert(List<String> names) {
+        String values = IntStream.rangeClosed(1, names.size())
+                .mapToObj(index -> "($" + index + ")")
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO anime (name) VALUES " + values +
+                " ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name" +
+                " WHERE anime.name IS DISTINCT FROM EXCLUDED.name" +
+                " RETURNING id, (xmax = 0) AS inserted");
+        for (int index = 0; index < names.size(); index++) {
+            spec = spec.bind(index, names.get(index));
+        }
+        return spec.map((row, metadata) -> Boolean.TRUE.equals(row.get("inserted", Boolean.class)))
+                .all()
+                .reduce(new int[2], (counts, inserted) -> {
+                    counts[inserted ? 0 : 1]++;
+                    return counts;
+                })
+                .map(counts -> new AnimeUpsertResult(counts[0], counts[1], names.size() - counts[0] - counts[1]));
+    }
+}
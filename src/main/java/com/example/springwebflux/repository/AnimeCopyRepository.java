@@ -0,0 +1,209 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.AnimeImportResult;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Postgres COPY through pgjdbc, because r2dbc-postgresql 0.8 has no COPY support.
+@Repository
+@ConditionalOnProperty(prefix = "app.persistence.jdbc", name = "url")
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeCopyRepository {
+    static final String EXPORT_CSV = "COPY (SELECT id, name FROM anime ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)";
+    static final String CREATE_STAGING_TABLE = "CREATE TEMPORARY TABLE anime_import (name VARCHAR(255) NOT NULL) ON COMMIT DROP";
+    static final String IMPORT_CSV = "COPY anime_import (name) FROM STDIN WITH (FORMAT csv)";
+    static final String MERGE_STAGING_TABLE = "INSERT INTO anime (name) SELECT DISTINCT name FROM anime_import " +
+            "ON CONFLICT (name) DO NOTHING";
+    private static final int IMPORT_PREFETCH = 2;
+
+    private final DataSource dataSource;
+    private final Scheduler scheduler;
+
+    public AnimeCopyRepository(DataSource dataSource, @Qualifier("jdbcScheduler") Scheduler scheduler) {
+        this.dataSource = dataSource;
+        this.scheduler = scheduler;
+    }
+
+    // Rows are only read from the socket when downstream requests another chunk, so a slow client
+    // holds one chunk in memory and leaves the rest of the table buffered by Postgres.
+    public Flux<DataBuffer> exportCsv(DataBufferFactory bufferFactory, int chunkSize) {
+        return Flux.usingWhen(
+                Mono.fromCallable(() -> Export.open(dataSource, EXPORT_CSV))
+                        .onErrorMap(SQLException.class, JdbcAnimeRepository::translate)
+                        .subscribeOn(scheduler),
+                export -> Flux.<DataBuffer>generate(sink -> {
+                    try {
+                        DataBuffer chunk = export.read(bufferFactory, chunkSize);
+                        if (chunk == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(chunk);
+                        }
+                    } catch (SQLException e) {
+                        sink.error(JdbcAnimeRepository.translate(e));
+                    }
+                }).subscribeOn(scheduler),
+                export -> close(export),
+                (export, error) -> close(export),
+                this::close)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    // Chunks of CSV rows are copied into a staging table that only lives for this transaction and then
+    // merged into anime in one statement; only IMPORT_PREFETCH chunks are requested ahead of the COPY.
+    public Mono<AnimeImportResult> importCsv(Flux<byte[]> chunks) {
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> Import.open(dataSource))
+                        .onErrorMap(SQLException.class, JdbcAnimeRepository::translate)
+                        .subscribeOn(scheduler),
+                anImport -> chunks
+                        .publishOn(scheduler, IMPORT_PREFETCH)
+                        .handle((chunk, sink) -> {
+                            try {
+                                anImport.write(chunk);
+                            } catch (SQLException e) {
+                                sink.error(JdbcAnimeRepository.translate(e));
+                            }
+                        })
+                        .then(Mono.fromCallable(anImport::merge)
+                                .onErrorMap(SQLException.class, JdbcAnimeRepository::translate)
+                                .subscribeOn(scheduler)),
+                anImport -> close(anImport, true),
+                (anImport, error) -> close(anImport, false),
+                anImport -> close(anImport, false));
+    }
+
+    private Mono<Void> close(Export export) {
+        return Mono.<Void>fromRunnable(export::close).subscribeOn(scheduler);
+    }
+
+    private Mono<Void> close(Import anImport, boolean commit) {
+        return Mono.<Void>fromRunnable(() -> anImport.close(commit)).subscribeOn(scheduler);
+    }
+
+    private static class Import {
+        private final Connection connection;
+        private final CopyIn copyIn;
+
+        private Import(Connection connection, CopyIn copyIn) {
+            this.connection = connection;
+            this.copyIn = copyIn;
+        }
+
+        private static Import open(DataSource dataSource) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_TABLE);
+                }
+                return new Import(connection, connection.unwrap(PGConnection.class).getCopyAPI().copyIn(IMPORT_CSV));
+            } catch (SQLException e) {
+                connection.rollback();
+                connection.close();
+                throw e;
+            }
+        }
+
+        private void write(byte[] chunk) throws SQLException {
+            copyIn.writeToCopy(chunk, 0, chunk.length);
+        }
+
+        private AnimeImportResult merge() throws SQLException {
+            long copied = copyIn.endCopy();
+            try (Statement statement = connection.createStatement()) {
+                long imported = statement.executeUpdate(MERGE_STAGING_TABLE);
+                return new AnimeImportResult(imported, 0, copied - imported);
+            }
+        }
+
+        private void close(boolean commit) {
+            try (connection) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                if (commit) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                throw JdbcAnimeRepository.translate(e);
+            }
+        }
+    }
+
+    private static class Export {
+        private final Connection connection;
+        private final CopyOut copyOut;
+        private boolean done;
+
+        private Export(Connection connection, CopyOut copyOut) {
+            this.connection = connection;
+            this.copyOut = copyOut;
+        }
+
+        private static Export open(DataSource dataSource, String sql) throws SQLException {
+            Connection connection = dataSource.getConnection();
+            try {
+                return new Export(connection, connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql));
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        private DataBuffer read(DataBufferFactory bufferFactory, int chunkSize) throws SQLException {
+            if (done) {
+                return null;
+            }
+            DataBuffer chunk = null;
+            try {
+                byte[] row;
+                while ((row = copyOut.readFromCopy()) != null) {
+                    if (chunk == null) {
+                        chunk = bufferFactory.allocateBuffer(chunkSize + row.length);
+                    }
+                    chunk.write(row);
+                    if (chunk.readableByteCount() >= chunkSize) {
+                        return chunk;
+                    }
+                }
+                done = true;
+                return chunk;
+            } catch (SQLException e) {
+                if (chunk != null) {
+                    DataBufferUtils.release(chunk);
+                }
+                throw e;
+            }
+        }
+
+        private void close() {
+            try (connection) {
+                if (copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+            } catch (SQLException e) {
+                throw JdbcAnimeRepository.translate(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.springwebflux.repository;
+
+import lombok.Getter;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+// Raised by every persistence engine when save updates a row that does not exist. It keeps the type Spring Data
+// R2DBC reports this with, so callers handling that still work, while telling it apart from a failing database.
+@Getter
+public class AnimeNotFoundException extends TransientDataAccessResourceException {
+    private final int id;
+
+    public AnimeNotFoundException(int id) {
+        this(id, null);
+    }
+
+    public AnimeNotFoundException(int id, Throwable cause) {
+        super(String.format("Failed to update table [anime]. Row with Id [%s] does not exist.", id), cause);
+        this.id = id;
+    }
+}
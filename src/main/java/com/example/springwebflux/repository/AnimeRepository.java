@@ -6,4 +6,12 @@ import reactor.core.publisher.Mono;
 
 public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer> {
     Mono<Anime> findById(int id);
+
+    /**
+     * Tells the repository that rows were written around it (bulk upsert, COPY import), so cached reads must be
+     * rebuilt. Inside a transaction this takes effect once it commits.
+     */
+    default Mono<Void> invalidate() {
+        return Mono.empty();
+    }
 }
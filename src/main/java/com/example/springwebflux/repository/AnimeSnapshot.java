@@ -0,0 +1,82 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+// Immutable id-sorted copy of the catalogue. ids[i] is the id of animes[i]; changes build a new snapshot.
+final class AnimeSnapshot {
+    static final AnimeSnapshot EMPTY = new AnimeSnapshot(new int[0], new Anime[0]);
+
+    private final int[] ids;
+    private final Anime[] animes;
+
+    private AnimeSnapshot(int[] ids, Anime[] animes) {
+        this.ids = ids;
+        this.animes = animes;
+    }
+
+    static AnimeSnapshot of(Collection<? extends Anime> animes) {
+        return EMPTY.upsert(animes);
+    }
+
+    Anime find(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? null : animes[index];
+    }
+
+    Anime[] animes() {
+        return animes;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    AnimeSnapshot upsert(Collection<? extends Anime> changes) {
+        Anime[] sorted = changes.stream()
+                .filter(anime -> anime.getId() != null)
+                .map(anime -> new Anime(anime.getId(), anime.getName()))
+                .sorted(Comparator.comparingInt(Anime::getId))
+                .toArray(Anime[]::new);
+        int[] mergedIds = new int[ids.length + sorted.length];
+        Anime[] merged = new Anime[ids.length + sorted.length];
+        int size = 0;
+        int current = 0;
+        for (int change = 0; change < sorted.length; change++) {
+            int id = sorted[change].getId();
+            while (current < ids.length && ids[current] < id) {
+                mergedIds[size] = ids[current];
+                merged[size++] = animes[current++];
+            }
+            if (current < ids.length && ids[current] == id) {
+                current++;
+            }
+            if (size > 0 && mergedIds[size - 1] == id) {
+                size--;
+            }
+            mergedIds[size] = id;
+            merged[size++] = sorted[change];
+        }
+        int remaining = ids.length - current;
+        System.arraycopy(ids, current, mergedIds, size, remaining);
+        System.arraycopy(animes, current, merged, size, remaining);
+        size += remaining;
+        return new AnimeSnapshot(Arrays.copyOf(mergedIds, size), Arrays.copyOf(merged, size));
+    }
+
+    AnimeSnapshot remove(Collection<Integer> removedIds) {
+        int[] keptIds = new int[ids.length];
+        Anime[] kept = new Anime[ids.length];
+        int size = 0;
+        for (int index = 0; index < ids.length; index++) {
+            if (!removedIds.contains(ids[index])) {
+                keptIds[size] = ids[index];
+                kept[size++] = animes[index];
+            }
+        }
+        return size == ids.length ? this : new AnimeSnapshot(Arrays.copyOf(keptIds, size), Arrays.copyOf(kept, size));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.IdempotencyProperties;
+import com.example.springwebflux.domain.IdempotentResponse;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+@RequiredArgsConstructor
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+    private static final IdempotentResponse PENDING = new IdempotentResponse(0, null, new byte[0], null);
+    private static final IllegalStateException STILL_PENDING = new IllegalStateException("Idempotent request still in flight");
+
+    private final DatabaseClient databaseClient;
+    private final IdempotencyProperties properties;
+
+    @Override
+    public Mono<Boolean> claim(String key) {
+        return databaseClient.sql("INSERT INTO idempotency_key (idempotency_key, expires_at) " +
+                "VALUES (:key, now() + make_interval(secs => :timeout)) " +
+                "ON CONFLICT (idempotency_key) DO UPDATE " +
+                "SET status = NULL, content_type = NULL, body = NULL, fingerprint = NULL, expires_at = EXCLUDED.expires_at " +
+                "WHERE idempotency_key.expires_at < now()")
+                .bind("key", key)
+                .bind("timeout", seconds(properties.getInFlightTimeout().toMillis()))
+                .fetch()
+                .rowsUpdated()
+                .map(rowsUpdated -> rowsUpdated == 1);
+    }
+
+    @Override
+    public Mono<IdempotentResponse> await(String key) {
+        return Mono.defer(() -> databaseClient
+                .sql("SELECT status, content_type, body, fingerprint FROM idempotency_key " +
+                        "WHERE idempotency_key = :key AND expires_at >= now()")
+                .bind("key", key)
+                .map((row, metadata) -> toResponse(row))
+                .one())
+                .flatMap(response -> response == PENDING ? Mono.<IdempotentResponse>error(STILL_PENDING) : Mono.just(response))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, properties.getPollInterval())
+                        .filter(STILL_PENDING::equals))
+                .timeout(properties.getInFlightTimeout(), Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> complete(String key, IdempotentResponse response) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("UPDATE idempotency_key SET status = :status, content_type = :contentType, body = :body, " +
+                        "fingerprint = :fingerprint, " +
+                        "expires_at = now() + make_interval(secs => :ttl) WHERE idempotency_key = :key")
+                .bind("key", key)
+                .bind("status", response.getStatus())
+                .bind("body", response.getBody())
+                .bind("fingerprint", response.getFingerprint())
+                .bind("ttl", seconds(properties.getTtl().toMillis()));
+        spec = response.getContentType() == null
+                ? spec.bindNull("contentType", String.class)
+                : spec.bind("contentType", response.getContentType());
+        return spec.then();
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return databaseClient.sql("DELETE FROM idempotency_key WHERE idempotency_key = :key")
+                .bind("key", key)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> evictExpired() {
+        return databaseClient.sql("DELETE FROM idempotency_key WHERE expires_at < now()")
+                .then();
+    }
+
+    private IdempotentResponse toResponse(Row row) {
+        Integer status = row.get("status", Integer.class);
+        if (status == null) {
+            return PENDING;
+        }
+        return new IdempotentResponse(status, row.get("content_type", String.class), row.get("body", byte[].class),
+                row.get("fingerprint", String.class));
+    }
+
+    private double seconds(long millis) {
+        return millis / 1000d;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public abstract class DelegatingAnimeRepository implements AnimeRepository {
+    protected final AnimeRepository delegate;
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Mono<Void> invalidate() {
+        return delegate.invalidate();
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        return delegate.saveAll(entityStream);
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> idStream) {
+        return delegate.findAllById(idStream);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return delegate.deleteById(id);
+    }
+
+    @Override
+    public Mono<Void> delete(Anime entity) {
+        return delegate.delete(entity);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> entities) {
+        return delegate.deleteAll(entities);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> entityStream) {
+        return delegate.deleteAll(entityStream);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return delegate.deleteAll();
+    }
+}
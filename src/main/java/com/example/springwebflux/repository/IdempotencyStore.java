@@ -0,0 +1,22 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.IdempotentResponse;
+import reactor.core.publisher.Mono;
+
+public interface IdempotencyStore {
+    /**
+     * Emits true when the caller now owns the key and must execute the request.
+     */
+    Mono<Boolean> claim(String key);
+
+    /**
+     * Waits for the owner of the key to finish; completes empty when the key was released.
+     */
+    Mono<IdempotentResponse> await(String key);
+
+    Mono<Void> complete(String key, IdempotentResponse response);
+
+    Mono<Void> release(String key);
+
+    Mono<Void> evictExpired();
+}
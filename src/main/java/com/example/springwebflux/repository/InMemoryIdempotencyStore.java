@@ -0,0 +1,103 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.IdempotencyProperties;
+import com.example.springwebflux.domain.IdempotentResponse;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@RequiredArgsConstructor
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Entry>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+
+    @Override
+    public Mono<Boolean> claim(String key) {
+        return Mono.fromSupplier(() -> {
+            long now = clock.millis();
+            Entry claimed = new Entry(now + properties.getInFlightTimeout().toMillis());
+            Entry current = entries.compute(key, (k, existing) -> existing == null || existing.isExpired(now) ? claimed : existing);
+            if (current != claimed) {
+                return false;
+            }
+            insertionOrder.add(Map.entry(key, claimed));
+            evictOverflow();
+            return true;
+        });
+    }
+
+    @Override
+    public Mono<IdempotentResponse> await(String key) {
+        return Mono.defer(() -> {
+            Entry entry = entries.get(key);
+            return entry == null || entry.isExpired(clock.millis()) ? Mono.empty() : entry.result.asMono();
+        }).timeout(properties.getInFlightTimeout(), Mono.empty());
+    }
+
+    @Override
+    public Mono<Void> complete(String key, IdempotentResponse response) {
+        return Mono.fromRunnable(() -> {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.expiresAt = clock.millis() + properties.getTtl().toMillis();
+                entry.result.tryEmitValue(response);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return Mono.fromRunnable(() -> {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                entry.result.tryEmitEmpty();
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> evictExpired() {
+        return Mono.fromRunnable(() -> {
+            long now = clock.millis();
+            entries.forEach((key, entry) -> {
+                if (entry.isExpired(now) && entries.remove(key, entry)) {
+                    entry.result.tryEmitEmpty();
+                }
+            });
+            insertionOrder.removeIf(node -> entries.get(node.getKey()) != node.getValue());
+        });
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > properties.getMaxEntries()) {
+            Map.Entry<String, Entry> eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                eldest.getValue().result.tryEmitEmpty();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Sinks.One<IdempotentResponse> result = Sinks.one();
+        private volatile long expiresAt;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt < now;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+// Blocking JDBC engine; every call is shifted onto the JDBC scheduler so no event loop waits on the driver.
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcAnimeRepository implements AnimeRepository {
+    private final DataSource dataSource;
+    private final Scheduler scheduler;
+    private final int fetchSize;
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT id, name FROM anime WHERE id = ?")) {
+                statement.setInt(1, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? anime(resultSet) : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return findById(id.intValue());
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        Assert.notNull(entity, "Entity must not be null!");
+        return execute(connection -> save(connection, entity));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null!");
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    // Runs in one JDBC transaction that commits only after the last entity was consumed downstream, so a
+    // subscriber failing on an emitted entity (as AnimeService#saveAll does) rolls the whole batch back.
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        Assert.notNull(entityStream, "The given Publisher of entities must not be null!");
+        return Flux.usingWhen(
+                begin(),
+                connection -> Flux.from(entityStream)
+                        .concatMap(entity -> Mono.fromCallable(() -> save(connection, entity))
+                                .onErrorMap(SQLException.class, JdbcAnimeRepository::translate)
+                                .subscribeOn(scheduler)),
+                connection -> complete(connection, true),
+                (connection, error) -> complete(connection, false),
+                connection -> complete(connection, false));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM anime WHERE id = ? LIMIT 1")) {
+                statement.setInt(1, id);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return query("SELECT id, name FROM anime", null);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        Assert.notNull(ids, "The given Iterable of Id's must not be null!");
+        List<Integer> idList = StreamSupport.stream(ids.spliterator(), false).collect(Collectors.toList());
+        return idList.isEmpty() ? Flux.empty() : query("SELECT id, name FROM anime WHERE id = ANY (?)", idList);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM anime");
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return update("DELETE FROM anime WHERE id = ?", id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Anime entity) {
+        Assert.notNull(entity, "Entity to delete must not be null!");
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null!");
+        List<Integer> ids = StreamSupport.stream(entities.spliterator(), false)
+                .map(Anime::getId)
+                .collect(Collectors.toList());
+        return ids.isEmpty() ? Mono.empty() : update("DELETE FROM anime WHERE id = ANY (?)", ids);
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> entityStream) {
+        return Flux.from(entityStream).collectList().flatMap(this::deleteAll);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return update("DELETE FROM anime", null);
+    }
+
+    private <S extends Anime> S save(Connection connection, S entity) throws SQLException {
+        if (entity.getId() == null) {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO anime (name) VALUES (?) RETURNING id")) {
+                statement.setString(1, entity.getName());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    entity.setId(resultSet.getInt(1));
+                    return entity;
+                }
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE anime SET name = ? WHERE id = ?")) {
+            statement.setString(1, entity.getName());
+            statement.setInt(2, entity.getId());
+            if (statement.executeUpdate() == 0) {
+                throw new AnimeNotFoundException(entity.getId());
+            }
+            return entity;
+        }
+    }
+
+    // Rows are read as they are requested. PostgreSQL only fetches fetchSize rows at a time outside auto-commit,
+    // so the cursor runs in a read transaction that is rolled back when it is closed.
+    private Flux<Anime> query(String sql, List<Integer> ids) {
+        return Flux.<Anime, Cursor>generate(() -> open(sql, ids), (cursor, sink) -> {
+                    try {
+                        if (cursor.resultSet.next()) {
+                            sink.next(anime(cursor.resultSet));
+                        } else {
+                            sink.complete();
+                        }
+                    } catch (SQLException e) {
+                        sink.error(translate(e));
+                    }
+                    return cursor;
+                }, Cursor::close)
+                .onErrorMap(SQLException.class, JdbcAnimeRepository::translate)
+                .cancelOn(scheduler)
+                .subscribeOn(scheduler);
+    }
+
+    private Cursor open(String sql, List<Integer> ids) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            bind(connection, statement, ids);
+            return new Cursor(connection, statement, statement.executeQuery());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private Mono<Void> update(String sql, Object parameter) {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(connection, statement, parameter);
+                return statement.executeUpdate();
+            }
+        }).then();
+    }
+
+    private static void bind(Connection connection, PreparedStatement statement, Object parameter) throws SQLException {
+        if (parameter instanceof Integer) {
+            statement.setInt(1, (Integer) parameter);
+        } else if (parameter instanceof List) {
+            statement.setArray(1, connection.createArrayOf("integer", ((List<?>) parameter).toArray()));
+        }
+    }
+
+    private <T> Mono<T> execute(ConnectionCallback<T> callback) {
+        return Mono.fromCallable(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return callback.doInConnection(connection);
+            }
+        }).onErrorMap(SQLException.class, JdbcAnimeRepository::translate).subscribeOn(scheduler);
+    }
+
+    private Mono<Connection> begin() {
+        return Mono.fromCallable(() -> {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                return connection;
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }).onErrorMap(SQLException.class, JdbcAnimeRepository::translate).subscribeOn(scheduler);
+    }
+
+    private Mono<Void> complete(Connection connection, boolean commit) {
+        return Mono.<Void>fromRunnable(() -> {
+            try (connection) {
+                if (commit) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }).subscribeOn(scheduler);
+    }
+
+    private static Anime anime(ResultSet resultSet) throws SQLException {
+        return new Anime(resultSet.getInt("id"), resultSet.getString("name"));
+    }
+
+    static DataAccessException translate(SQLException e) {
+        String sqlState = e.getSQLState() == null ? "" : e.getSQLState();
+        if (e instanceof SQLTransientException || sqlState.startsWith("08") || sqlState.startsWith("40")) {
+            return new TransientDataAccessResourceException(e.getMessage(), e);
+        }
+        if (sqlState.startsWith("23")) {
+            return new DataIntegrityViolationException(e.getMessage(), e);
+        }
+        if (sqlState.startsWith("42")) {
+            return new InvalidDataAccessResourceUsageException(e.getMessage(), e);
+        }
+        return new DataAccessResourceFailureException(e.getMessage(), e);
+    }
+
+    @RequiredArgsConstructor
+    private static class Cursor {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+
+        private void close() {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            } catch (SQLException e) {
+                log.warn("Could not close the anime cursor", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<T> {
+        T doInConnection(Connection connection) throws SQLException;
+    }
+}
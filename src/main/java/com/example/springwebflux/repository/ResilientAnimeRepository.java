@@ -0,0 +1,238 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.RepositoryResilienceProperties;
+import com.example.springwebflux.domain.Anime;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+public class ResilientAnimeRepository extends DelegatingAnimeRepository {
+    private final RepositoryResilienceProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+    private final Map<Integer, Anime> lastKnown;
+
+    public ResilientAnimeRepository(AnimeRepository delegate,
+                                    RepositoryResilienceProperties properties,
+                                    CircuitBreaker circuitBreaker,
+                                    Bulkhead readBulkhead,
+                                    Bulkhead writeBulkhead) {
+        super(delegate);
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
+        this.lastKnown = properties.isFallbackEnabled() ? lruCache(properties.getFallbackCacheSize()) : null;
+    }
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        return findById(id, delegate.findById(id));
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        return findById(id, delegate.findById(id));
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return read("findById", delegate.findById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return read("existsById", delegate.existsById(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return read("existsById", delegate.existsById(id));
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return read("findAll", delegate.findAll());
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        return read("findAllById", delegate.findAllById(ids));
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> idStream) {
+        return read("findAllById", delegate.findAllById(idStream));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return read("count", delegate.count());
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        return write("save", delegate.save(entity).doOnNext(this::remember));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        return write("saveAll", delegate.saveAll(entities).doOnNext(this::remember));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        return write("saveAll", delegate.saveAll(entityStream).doOnNext(this::remember));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return write("deleteById", delegate.deleteById(id).doOnSuccess(ignored -> forget(id)));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return write("deleteById", delegate.deleteById(id).doOnSuccess(ignored -> forgetAll()));
+    }
+
+    @Override
+    public Mono<Void> delete(Anime entity) {
+        return write("delete", delegate.delete(entity).doOnSuccess(ignored -> forget(entity.getId())));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> entities) {
+        return write("deleteAll", delegate.deleteAll(entities)
+                .doOnSuccess(ignored -> entities.forEach(anime -> forget(anime.getId()))));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> entityStream) {
+        return write("deleteAll", delegate.deleteAll(entityStream).doOnSuccess(ignored -> forgetAll()));
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return write("deleteAll", delegate.deleteAll().doOnSuccess(ignored -> forgetAll()));
+    }
+
+    @Override
+    public Mono<Void> invalidate() {
+        return delegate.invalidate().doOnSuccess(ignored -> forgetAll());
+    }
+
+    private Mono<Anime> findById(Integer id, Mono<Anime> lookup) {
+        Mono<Anime> guarded = guard(lookup.timeout(properties.readTimeout("findById")), readBulkhead)
+                .doOnNext(this::remember);
+        if (lastKnown != null) {
+            guarded = guarded.onErrorResume(CallNotPermittedException.class,
+                    e -> Mono.justOrEmpty(lastKnown.get(id)).switchIfEmpty(Mono.error(e)));
+        }
+        return guarded.onErrorMap(this::isRejection, this::unavailable);
+    }
+
+    private <T> Mono<T> read(String operation, Mono<T> source) {
+        return guard(source.timeout(properties.readTimeout(operation)), readBulkhead)
+                .onErrorMap(this::isRejection, this::unavailable);
+    }
+
+    private <T> Flux<T> read(String operation, Flux<T> source) {
+        return guard(source.timeout(properties.readTimeout(operation)), readBulkhead)
+                .onErrorMap(this::isRejection, this::unavailable);
+    }
+
+    private <T> Mono<T> write(String operation, Mono<T> source) {
+        return guard(source.timeout(properties.writeTimeout(operation)), writeBulkhead)
+                .onErrorMap(this::isRejection, this::unavailable);
+    }
+
+    private <T> Flux<T> write(String operation, Flux<T> source) {
+        return guard(withDeadline(source, properties.writeTimeout(operation)), writeBulkhead)
+                .onErrorMap(this::isRejection, this::unavailable);
+    }
+
+    private <T> Mono<T> guard(Mono<T> source, Bulkhead bulkhead) {
+        return source
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private <T> Flux<T> guard(Flux<T> source, Bulkhead bulkhead) {
+        return source
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    // Flux#timeout(Duration) only bounds the gap between elements; this bounds the whole stream, for writes that must
+    // finish within their timeout. Reads such as findAll may stream for as long as rows keep coming.
+    private static <T> Flux<T> withDeadline(Flux<T> source, Duration timeout) {
+        return Flux.defer(() -> {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            Supplier<Mono<Long>> remaining = () -> Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+            return source.timeout(Mono.defer(remaining), item -> remaining.get());
+        });
+    }
+
+    /**
+     * Errors caused by the request rather than the database, which must not open the circuit breaker: duplicate
+     * names and updates of rows that do not exist.
+     */
+    public static boolean isCallerError(Throwable throwable) {
+        return throwable instanceof DataIntegrityViolationException
+                || throwable instanceof AnimeNotFoundException;
+    }
+
+    private boolean isRejection(Throwable throwable) {
+        return throwable instanceof CallNotPermittedException
+                || throwable instanceof BulkheadFullException
+                || throwable instanceof TimeoutException;
+    }
+
+    private Throwable unavailable(Throwable throwable) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Anime repository unavailable", throwable);
+    }
+
+    private void remember(Anime anime) {
+        if (lastKnown != null && anime.getId() != null) {
+            lastKnown.put(anime.getId(), anime);
+        }
+    }
+
+    private void forget(Integer id) {
+        if (lastKnown != null && id != null) {
+            lastKnown.remove(id);
+        }
+    }
+
+    private void forgetAll() {
+        if (lastKnown != null) {
+            lastKnown.clear();
+        }
+    }
+
+    private static Map<Integer, Anime> lruCache(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Anime> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.connection.ConnectionFactoryUtils;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Spreads the anime table over several databases. A row lives on shard floorMod(id, shards); every shard draws new
+// ids from its own sequence (START WITH shard, INCREMENT BY shards) so generated ids route back to where they were
+// inserted. Reads spanning shards are merged in id order.
+// Names stay unique across shards through the anime_shard_name directory, partitioned by the hash of the name: a
+// write claims the name on the shard it hashes to, so a duplicate fails there with DataIntegrityViolationException
+// wherever the other row lives. New rows are inserted on the shard of their name together with their directory entry;
+// a rename keeps the row on the shard of its id and only moves the entry.
+public class ShardedAnimeRepository implements AnimeRepository {
+    public static final String SEQUENCE = "anime_shard_id_seq";
+    public static final String NAME_TABLE = "anime_shard_name";
+    private static final String FIND_BY_ID = "SELECT id, name FROM anime WHERE id = $1";
+    private static final String FIND_ALL = "SELECT id, name FROM anime ORDER BY id";
+    private static final String FIND_ALL_BY_ID = "SELECT id, name FROM anime WHERE id = ANY ($1) ORDER BY id";
+    private static final String EXISTS_BY_ID = "SELECT 1 FROM anime WHERE id = $1";
+    private static final String COUNT = "SELECT count(*) FROM anime";
+    private static final String INSERT = "WITH inserted AS (INSERT INTO anime (id, name) VALUES (nextval('" + SEQUENCE
+            + "'), $1) RETURNING id, name) INSERT INTO " + NAME_TABLE + " (name, id) SELECT name, id FROM inserted RETURNING id";
+    private static final String LOCK_BY_ID = "SELECT name FROM anime WHERE id = $1 FOR UPDATE";
+    private static final String UPDATE = "UPDATE anime SET name = $1 WHERE id = $2";
+    private static final String CLAIM_NAME = "INSERT INTO " + NAME_TABLE + " (name, id) VALUES ($1, $2)";
+    private static final String RELEASE_NAME = "DELETE FROM " + NAME_TABLE + " WHERE name = $1 AND id = $2";
+    private static final String DELETE_BY_ID = "DELETE FROM anime WHERE id = $1 RETURNING name";
+    private static final String DELETE_ALL_NAMES = "DELETE FROM " + NAME_TABLE;
+    private static final String DELETE_ALL = "DELETE FROM anime";
+    private static final Comparator<Anime> BY_ID = Comparator.comparing(Anime::getId);
+
+    private final List<ConnectionFactory> shards;
+
+    public ShardedAnimeRepository(List<ConnectionFactory> shards) {
+        Assert.notEmpty(shards, "At least one shard is required");
+        this.shards = List.copyOf(shards);
+    }
+
+    public static int shardOf(int id, int shardCount) {
+        return Math.floorMod(id, shardCount);
+    }
+
+    public static int shardOfName(String name, int shardCount) {
+        return Math.floorMod(Objects.hashCode(name), shardCount);
+    }
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        return withConnection(shardOf(id), connection -> query(connection, FIND_BY_ID, id)).next();
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return findById(id.intValue());
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        Assert.notNull(entity, "Entity must not be null!");
+        if (entity.getId() == null) {
+            return withConnection(shardOfName(entity.getName()), connection -> insert(connection, entity)).next();
+        }
+        return inTransaction(transaction -> update(transaction, entity)).next();
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null!");
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    // Every shard the batch touches is written inside its own transaction. All of them commit only after the last
+    // entity was consumed downstream, so a subscriber failing on an emitted entity (as AnimeService#saveAll does)
+    // rolls every shard back. There is no two-phase commit: a shard failing to commit after another one did leaves the
+    // batch partly written.
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        Assert.notNull(entityStream, "The given Publisher of entities must not be null!");
+        return Flux.from(entityStream)
+                .collectList()
+                .filter(entities -> !entities.isEmpty())
+                .flatMapMany(entities -> inTransaction(transaction -> saveAll(transaction, entities)));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return withConnection(shardOf(id), connection -> execute(connection, EXISTS_BY_ID,
+                result -> result.map((row, metadata) -> Boolean.TRUE), id))
+                .hasElements();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        List<Publisher<Anime>> perShard = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            perShard.add(withConnection(shard, connection -> query(connection, FIND_ALL)));
+        }
+        return merge(perShard);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        Assert.notNull(ids, "The given Iterable of Id's must not be null!");
+        List<Integer> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        List<Publisher<Anime>> perShard = new ArrayList<>();
+        groupByShard(idList, this::shardOf).forEach((shard, shardIds) -> perShard.add(withConnection(shard,
+                connection -> query(connection, FIND_ALL_BY_ID, (Object) shardIds.toArray(new Integer[0])))));
+        return merge(perShard);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Flux.range(0, shards.size())
+                .flatMap(shard -> withConnection(shard, connection -> execute(connection, COUNT,
+                        result -> result.map((row, metadata) -> row.get(0, Long.class)))))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        Assert.notNull(id, "Id must not be null!");
+        return inTransaction(transaction -> delete(transaction, id)).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Anime entity) {
+        Assert.notNull(entity, "Entity to delete must not be null!");
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> entities) {
+        Assert.notNull(entities, "The given Iterable of entities must not be null!");
+        List<Integer> ids = new ArrayList<>();
+        entities.forEach(anime -> ids.add(anime.getId()));
+        return inTransaction(transaction -> Flux.fromIterable(ids).concatMap(id -> delete(transaction, id))).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> entityStream) {
+        return Flux.from(entityStream).collectList().flatMap(this::deleteAll);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Flux.range(0, shards.size())
+                .flatMap(shard -> withConnection(shard, connection -> update(connection, DELETE_ALL_NAMES)
+                        .then(update(connection, DELETE_ALL))))
+                .then();
+    }
+
+    public List<ConnectionFactory> getShards() {
+        return shards;
+    }
+
+    public void dispose() {
+        shards.stream()
+                .filter(Disposable.class::isInstance)
+                .forEach(shard -> ((Disposable) shard).dispose());
+    }
+
+    private int shardOf(Integer id) {
+        return shardOf(id, shards.size());
+    }
+
+    private int shardOfName(String name) {
+        return shardOfName(name, shards.size());
+    }
+
+    // The batch runs in steps, each on all shards it touches in parallel and statement after statement within a
+    // shard: lock the rows to update, release the names they give up, claim the new ones, insert the new rows together
+    // with their names, then rename the locked rows. Names given up are released before any is claimed, so anime of
+    // one batch may swap names; a name held outside the batch still fails the claim.
+    private <S extends Anime> Flux<S> saveAll(ShardTransaction transaction, List<S> entities) {
+        List<S> inserts = new ArrayList<>();
+        List<S> updates = new ArrayList<>();
+        entities.forEach(entity -> (entity.getId() == null ? inserts : updates).add(entity));
+        return onEachShard(transaction, updates, entity -> shardOf(entity.getId()),
+                (connection, entity) -> lock(connection, entity).map(current -> Map.entry(entity, current)))
+                .filter(locked -> !Objects.equals(locked.getValue(), locked.getKey().getName()))
+                .collectList()
+                .flatMapMany(renames -> onEachShard(transaction, renames, rename -> shardOfName(rename.getValue()),
+                        (connection, rename) -> update(connection, RELEASE_NAME, rename.getValue(),
+                                rename.getKey().getId()))
+                        .thenMany(onEachShard(transaction, renames, rename -> shardOfName(rename.getKey().getName()),
+                                (connection, rename) -> update(connection, CLAIM_NAME, rename.getKey().getName(),
+                                        rename.getKey().getId())))
+                        .thenMany(onEachShard(transaction, inserts, entity -> shardOfName(entity.getName()),
+                                ShardedAnimeRepository::insert))
+                        .thenMany(onEachShard(transaction, renames, rename -> shardOf(rename.getKey().getId()),
+                                (connection, rename) -> update(connection, UPDATE, rename.getKey().getName(),
+                                        rename.getKey().getId()))))
+                .thenMany(Flux.fromIterable(entities));
+    }
+
+    private <T, R> Flux<R> onEachShard(ShardTransaction transaction, List<T> values, ToIntFunction<T> shardOf,
+                                       BiFunction<Connection, T, Publisher<R>> write) {
+        return Flux.fromIterable(groupByShard(values, shardOf).entrySet())
+                .flatMap(shardValues -> transaction.connection(shardValues.getKey())
+                        .flatMapMany(connection -> Flux.fromIterable(shardValues.getValue())
+                                .concatMap(value -> write.apply(connection, value))));
+    }
+
+    private static <S extends Anime> Mono<S> insert(Connection connection, S entity) {
+        return execute(connection, INSERT, result -> result.map((row, metadata) -> row.get("id", Integer.class)),
+                entity.getName())
+                .next()
+                .map(id -> {
+                    entity.setId(id);
+                    return entity;
+                });
+    }
+
+    // Locks the row, then claims the new name before releasing the old one so a taken name fails the rename.
+    private <S extends Anime> Mono<S> update(ShardTransaction transaction, S entity) {
+        int shard = shardOf(entity.getId());
+        return transaction.connection(shard)
+                .flatMap(connection -> lock(connection, entity))
+                .flatMap(current -> Objects.equals(current, entity.getName())
+                        ? Mono.just(entity)
+                        : transaction.connection(shardOfName(entity.getName()))
+                                .flatMap(connection -> update(connection, CLAIM_NAME, entity.getName(), entity.getId()))
+                                .then(transaction.connection(shardOfName(current)))
+                                .flatMap(connection -> update(connection, RELEASE_NAME, current, entity.getId()))
+                                .then(transaction.connection(shard))
+                                .flatMap(connection -> update(connection, UPDATE, entity.getName(), entity.getId()))
+                                .thenReturn(entity));
+    }
+
+    // Emits the current name of the locked row.
+    private static Mono<String> lock(Connection connection, Anime entity) {
+        return execute(connection, LOCK_BY_ID, result -> result.map((row, metadata) -> row.get("name", String.class)),
+                entity.getId())
+                .next()
+                .switchIfEmpty(Mono.error(() -> new AnimeNotFoundException(entity.getId())));
+    }
+
+    private Mono<Void> delete(ShardTransaction transaction, Integer id) {
+        return transaction.connection(shardOf(id))
+                .flatMapMany(connection -> execute(connection, DELETE_BY_ID,
+                        result -> result.map((row, metadata) -> row.get("name", String.class)), id))
+                .concatMap(name -> transaction.connection(shardOfName(name))
+                        .flatMap(connection -> update(connection, RELEASE_NAME, name, id)))
+                .then();
+    }
+
+    private <T> Flux<T> withConnection(int shard, Function<Connection, Publisher<T>> action) {
+        return Flux.usingWhen(Mono.<Connection>from(shards.get(shard).create()), action, Connection::close);
+    }
+
+    private <T> Flux<T> inTransaction(Function<ShardTransaction, Publisher<T>> action) {
+        return Flux.usingWhen(Mono.fromSupplier(ShardTransaction::new), action,
+                transaction -> transaction.complete(true),
+                (transaction, error) -> transaction.complete(false),
+                transaction -> transaction.complete(false));
+    }
+
+    private static Flux<Anime> query(Connection connection, String sql, Object... parameters) {
+        return execute(connection, sql, result -> result.map(ShardedAnimeRepository::anime), parameters);
+    }
+
+    private static Mono<Integer> update(Connection connection, String sql, Object... parameters) {
+        return execute(connection, sql, Result::getRowsUpdated, parameters).reduce(0, Integer::sum);
+    }
+
+    // Errors such as constraint violations surface while a result is consumed, so the translation covers that too.
+    private static <T> Flux<T> execute(Connection connection, String sql, Function<Result, Publisher<T>> consumer,
+                                       Object... parameters) {
+        return Flux.defer(() -> {
+            Statement statement = connection.createStatement(sql);
+            for (int index = 0; index < parameters.length; index++) {
+                statement.bind(index, parameters[index]);
+            }
+            return Flux.<Result>from(statement.execute()).flatMap(consumer);
+        }).onErrorMap(R2dbcException.class, e -> ConnectionFactoryUtils.convertR2dbcException("Sharded " + sql, sql, e));
+    }
+
+    private static Flux<Anime> merge(List<Publisher<Anime>> perShard) {
+        if (perShard.isEmpty()) {
+            return Flux.empty();
+        }
+        @SuppressWarnings("unchecked")
+        Publisher<Anime>[] sources = perShard.toArray(new Publisher[0]);
+        return Flux.mergeOrdered(BY_ID, sources);
+    }
+
+    private static <T> Map<Integer, List<T>> groupByShard(List<T> values, ToIntFunction<T> shardOf) {
+        Map<Integer, List<T>> byShard = new TreeMap<>();
+        values.forEach(value -> byShard.computeIfAbsent(shardOf.applyAsInt(value), shard -> new ArrayList<>()).add(value));
+        return byShard;
+    }
+
+    private static Anime anime(Row row, RowMetadata metadata) {
+        return new Anime(row.get("id", Integer.class), row.get("name", String.class));
+    }
+
+    // The connections one write opened so far, each inside its own transaction, opened when the write first
+    // touches its shard.
+    private final class ShardTransaction {
+        private final Map<Integer, Mono<Connection>> connections = new ConcurrentHashMap<>();
+        private final Map<Integer, Connection> opened = new ConcurrentHashMap<>();
+
+        Mono<Connection> connection(int shard) {
+            return connections.computeIfAbsent(shard, key -> Mono.<Connection>from(shards.get(key).create())
+                    .doOnNext(connection -> opened.put(key, connection))
+                    .flatMap(connection -> Mono.from(connection.beginTransaction()).thenReturn(connection))
+                    .cache());
+        }
+
+        Mono<Void> complete(boolean commit) {
+            return Flux.fromIterable(opened.values())
+                    .flatMapDelayError(connection -> Flux.concatDelayError(
+                            commit ? connection.commitTransaction() : connection.rollbackTransaction(),
+                            connection.close()), Math.max(1, opened.size()), 1)
+                    .then();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Serves reads from an in-memory AnimeSnapshot once the first full load has finished; until then reads go to
+// the delegate. Writes go to the delegate and are applied to the snapshot after their transaction commits; bulk
+// writes call invalidate(), which sends reads back to the delegate until a reload finished. Writes made by other
+// nodes or directly in the database only show up with the next periodic reload.
+// Returned Anime instances are shared between requests and must not be modified.
+@Slf4j
+public class SnapshotAnimeRepository extends DelegatingAnimeRepository implements SmartLifecycle {
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final Duration refreshInterval;
+    // Every write swaps in a new State, so a reload can tell by identity whether a write raced it.
+    private final AtomicReference<State> state = new AtomicReference<>(new State(null));
+    private volatile Disposable refresher;
+
+    public SnapshotAnimeRepository(AnimeRepository delegate, Duration refreshInterval) {
+        super(delegate);
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Override
+    public Mono<Anime> findById(int id) {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? delegate.findById(id) : Mono.justOrEmpty(current.find(id));
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? delegate.findById(id) : Mono.justOrEmpty(current.find(id));
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? delegate.existsById(id) : Mono.just(current.find(id) != null);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? delegate.findAll() : Flux.fromArray(current.animes());
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null
+                ? delegate.findAllById(ids)
+                : Flux.fromIterable(ids).distinct().mapNotNull(current::find);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? delegate.count() : Mono.just((long) current.size());
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        return delegate.save(entity)
+                .flatMap(saved -> afterCommit(current -> current.upsert(List.of(saved))).thenReturn(saved));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        return applySaved(() -> delegate.saveAll(entities));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        return applySaved(() -> delegate.saveAll(entityStream));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return delegate.deleteById(id).then(afterCommit(current -> current.remove(Set.of(id))));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Anime entity) {
+        return delegate.delete(entity).then(afterCommit(current -> current.remove(Set.of(entity.getId()))));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> entities) {
+        Set<Integer> ids = new HashSet<>();
+        entities.forEach(anime -> ids.add(anime.getId()));
+        return delegate.deleteAll(entities).then(afterCommit(current -> current.remove(ids)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> entityStream) {
+        return Flux.from(entityStream).collectList().flatMap(this::deleteAll);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return delegate.deleteAll().then(afterCommit(current -> AnimeSnapshot.EMPTY));
+    }
+
+    @Override
+    public Mono<Void> invalidate() {
+        return delegate.invalidate().then(afterCommit(() -> {
+            state.set(new State(null));
+            reloadInBackground();
+        }));
+    }
+
+    // A load that overlapped a committed write may miss it, so it is discarded and tried again.
+    public Mono<Integer> reload() {
+        return Mono.defer(() -> {
+            State start = state.get();
+            return delegate.findAll()
+                    .collectList()
+                    .map(AnimeSnapshot::of)
+                    .filter(loaded -> state.compareAndSet(start, new State(loaded)))
+                    .map(AnimeSnapshot::size);
+        }).repeatWhenEmpty(RELOAD_ATTEMPTS - 1, attempts -> attempts);
+    }
+
+    public int size() {
+        AnimeSnapshot current = state.get().snapshot;
+        return current == null ? 0 : current.size();
+    }
+
+    @Override
+    public void start() {
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> loggedReload())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = refresher;
+        if (current != null) {
+            current.dispose();
+            refresher = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    private void reloadInBackground() {
+        loggedReload().subscribe();
+    }
+
+    private Mono<Integer> loggedReload() {
+        return reload()
+                .doOnNext(size -> log.debug("Reloaded anime snapshot with {} rows", size))
+                .onErrorResume(error -> {
+                    log.warn("Could not reload the anime snapshot", error);
+                    return Mono.empty();
+                });
+    }
+
+    private <S extends Anime> Flux<S> applySaved(Supplier<Flux<S>> save) {
+        return Flux.defer(() -> {
+            List<Anime> saved = Collections.synchronizedList(new ArrayList<>());
+            return save.get()
+                    .doOnNext(saved::add)
+                    .concatWith(Mono.defer(() -> afterCommit(current -> current.upsert(saved))).then(Mono.empty()));
+        });
+    }
+
+    // Inside a caller's transaction the snapshot only changes once it commits, so rolled back rows never become
+    // visible; saveAll of every engine completes only after its own commit. Before the first load there is nothing
+    // to update.
+    private Mono<Void> afterCommit(UnaryOperator<AnimeSnapshot> change) {
+        return afterCommit(() -> state.updateAndGet(current ->
+                new State(current.snapshot == null ? null : change.apply(current.snapshot))));
+    }
+
+    private Mono<Void> afterCommit(Runnable apply) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(apply);
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+                .switchIfEmpty(Mono.<TransactionSynchronizationManager>fromRunnable(apply))
+                .then();
+    }
+
+    @RequiredArgsConstructor
+    private static class State {
+        private final AnimeSnapshot snapshot;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Runs saveAll of the R2DBC engine in one transaction. It commits once the stream completes, so a subscriber failing
+// on an emitted entity (as AnimeService#saveAll does) cancels and rolls the whole batch back. The JDBC and sharded
+// engines do the same with their own connections.
+// Spring Data R2DBC reports the update of a missing row with the TransientDataAccessResourceException a lost connection
+// raises too; the row is looked up to raise AnimeNotFoundException instead, as the other engines do.
+public class TransactionalAnimeRepository extends DelegatingAnimeRepository {
+    private final TransactionalOperator transactionalOperator;
+
+    public TransactionalAnimeRepository(AnimeRepository delegate, TransactionalOperator transactionalOperator) {
+        super(delegate);
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S entity) {
+        return delegate.save(entity)
+                .onErrorResume(TransientDataAccessResourceException.class, e -> entity.getId() == null
+                        ? Mono.error(e)
+                        : delegate.existsById(entity.getId())
+                                .flatMap(exists -> Mono.error(exists ? e : new AnimeNotFoundException(entity.getId(), e))));
+    }
+
+    // Saves one entity after the other, as SimpleR2dbcRepository#saveAll does.
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entityStream) {
+        return transactionalOperator.transactional(Flux.defer(() -> Flux.from(entityStream).concatMap(this::save)));
+    }
+}
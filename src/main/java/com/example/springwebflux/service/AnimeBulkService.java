@@ -0,0 +1,54 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.BulkProperties;
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.Anime;
+import com.example.springwebflux.domain.AnimeUpsertResult;
+import com.example.springwebflux.repository.AnimeBulkRepository;
+import com.example.springwebflux.repository.AnimeRepository;
+import io.netty.util.internal.StringUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeBulkService {
+    static final int MAX_NAME_LENGTH = 255;
+
+    private final AnimeBulkRepository animeBulkRepository;
+    private final AnimeRepository animeRepository;
+    private final BulkProperties properties;
+
+    @Transactional
+    public Mono<AnimeUpsertResult> upsertAll(List<Anime> animeList) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Anime anime : animeList) {
+            if (!isValidName(anime.getName())) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Name"));
+            }
+            names.add(anime.getName());
+        }
+        // A name may only be touched once per statement, so repeated names are reported as unchanged.
+        AnimeUpsertResult duplicates = new AnimeUpsertResult(0, 0, animeList.size() - names.size());
+        return Flux.fromIterable(names)
+                .buffer(properties.getUpsertChunkSize())
+                .concatMap(animeBulkRepository::upsert)
+                .reduce(duplicates, AnimeUpsertResult::plus)
+                .flatMap(result -> animeRepository.invalidate().thenReturn(result));
+    }
+
+    static boolean isValidName(String name) {
+        return !StringUtil.isNullOrEmpty(name) && name.length() <= MAX_NAME_LENGTH;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.BulkProperties;
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.domain.AnimeImportResult;
+import com.example.springwebflux.repository.AnimeCopyRepository;
+import com.example.springwebflux.repository.AnimeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.persistence.jdbc", name = "url")
+@ConditionalOnExpression(PersistenceProperties.NOT_SHARDED)
+public class AnimeCopyService {
+    public static final String CSV = "csv";
+    static final String NAME_COLUMN = "name";
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final AnimeCopyRepository animeCopyRepository;
+    private final AnimeRepository animeRepository;
+    private final BulkProperties properties;
+
+    public Flux<DataBuffer> export(String format, DataBufferFactory bufferFactory) {
+        if (!CSV.equalsIgnoreCase(format)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format " + format));
+        }
+        return animeCopyRepository.exportCsv(bufferFactory, (int) properties.getExportChunkSize().toBytes());
+    }
+
+    // The first line is a header naming the columns, so files produced by the export can be loaded back.
+    public Mono<AnimeImportResult> importCsv(Flux<String> lines) {
+        return Mono.defer(() -> {
+            LongAdder rejected = new LongAdder();
+            Flux<byte[]> chunks = lines
+                    .switchOnFirst((header, rows) -> {
+                        if (!header.hasValue()) {
+                            return rows;
+                        }
+                        int nameColumn = nameColumn(header.get());
+                        if (nameColumn < 0) {
+                            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                    "The CSV header must contain a name column"));
+                        }
+                        return rows.skip(1)
+                                .filter(line -> !line.isBlank())
+                                .handle((line, sink) -> {
+                                    List<String> fields = fields(line);
+                                    String name = fields == null || fields.size() <= nameColumn ? null : fields.get(nameColumn);
+                                    if (AnimeBulkService.isValidName(name)) {
+                                        sink.next(csvRow(name));
+                                    } else {
+                                        rejected.increment();
+                                    }
+                                });
+                    })
+                    .buffer(properties.getImportChunkRows())
+                    .map(rows -> String.join("", rows).getBytes(StandardCharsets.UTF_8));
+            return animeCopyRepository.importCsv(chunks)
+                    .map(result -> new AnimeImportResult(result.getImported(), rejected.sum(), result.getSkipped()))
+                    .flatMap(result -> animeRepository.invalidate().thenReturn(result));
+        });
+    }
+
+    private static int nameColumn(String header) {
+        List<String> columns = fields(header.replace(BYTE_ORDER_MARK, ""));
+        if (columns == null) {
+            return -1;
+        }
+        for (int index = 0; index < columns.size(); index++) {
+            if (NAME_COLUMN.equalsIgnoreCase(columns.get(index).trim())) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // RFC 4180 fields of a single line; null when a quoted field is not closed on the same line.
+    static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < line.length(); index++) {
+            char character = line.charAt(index);
+            if (quoted) {
+                if (character != '"') {
+                    field.append(character);
+                } else if (index + 1 < line.length() && line.charAt(index + 1) == '"') {
+                    field.append('"');
+                    index++;
+                } else {
+                    quoted = false;
+                }
+            } else if (character == '"') {
+                quoted = true;
+            } else if (character == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(character);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String csvRow(String name) {
+        return '"' + name.replace("\"", "\"\"") + "\"\n";
+    }
+}
@@ -1,12 +1,13 @@
 package com.example.springwebflux.service;
 
 import com.example.springwebflux.domain.Anime;
+import com.example.springwebflux.repository.AnimeNotFoundException;
 import com.example.springwebflux.repository.AnimeRepository;
 import io.netty.util.internal.StringUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -28,12 +29,15 @@ public class AnimeService {
     }
 
     public Mono<Anime> save(Anime anime) {
-        return animeRepository.save(anime);
+        return animeRepository.save(anime)
+                .onErrorMap(DataIntegrityViolationException.class, this::responseStatusConflictException);
     }
 
     public Mono<Void> update(Anime anime) {
         return findById(anime.getId())
                 .flatMap(animeRepository::save)
+                .onErrorMap(DataIntegrityViolationException.class, this::responseStatusConflictException)
+                .onErrorMap(AnimeNotFoundException.class, this::responseStatusNotFoundException)
                 .then(Mono.empty());
     }
 
@@ -46,9 +50,20 @@ public class AnimeService {
         return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime ".concat(String.valueOf(id)).concat(" not found.")));
     }
 
-    @Transactional
+    // The row was deleted between the lookup and the write, or a batch names an id that does not exist.
+    private ResponseStatusException responseStatusNotFoundException(AnimeNotFoundException e) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime ".concat(String.valueOf(e.getId())).concat(" not found."), e);
+    }
+
+    private ResponseStatusException responseStatusConflictException(DataIntegrityViolationException e) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "An anime with this name already exists", e);
+    }
+
+    // Each persistence engine runs saveAll in its own transaction, which rolls back when the name check below fails.
     public Flux<Anime> saveAll(List<Anime> animeList) {
         return animeRepository.saveAll(animeList)
+                .onErrorMap(DataIntegrityViolationException.class, this::responseStatusConflictException)
+                .onErrorMap(AnimeNotFoundException.class, this::responseStatusNotFoundException)
                 .doOnNext(this::throwResponseStatusExceptionWhenEmptyName);
     }
 
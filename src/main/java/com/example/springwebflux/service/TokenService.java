@@ -0,0 +1,114 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.TokenProperties;
+import com.example.springwebflux.domain.AccessToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String TOKEN_TYPE = "Bearer";
+    private static final String FIELD_SEPARATOR = "\n";
+
+    private final TokenProperties properties;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public TokenService(TokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    TokenService(TokenProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.key = new SecretKeySpec(secret(properties), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public AccessToken issue(Authentication authentication) {
+        String username = authentication.getName();
+        if (username.contains(FIELD_SEPARATOR)) {
+            throw new IllegalArgumentException("Username cannot contain line breaks");
+        }
+        long expiresAt = clock.instant().plus(properties.getTtl()).getEpochSecond();
+        String roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        byte[] payload = String.join(FIELD_SEPARATOR, username, roles, String.valueOf(expiresAt))
+                .getBytes(StandardCharsets.UTF_8);
+
+        String token = encode(payload) + "." + encode(sign(payload));
+        return new AccessToken(token, TOKEN_TYPE, properties.getTtl().getSeconds());
+    }
+
+    public Optional<Authentication> verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separator));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] fields = new String(payload, StandardCharsets.UTF_8).split(FIELD_SEPARATOR, -1);
+            if (fields.length != 3 || Long.parseLong(fields[2]) < clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new UsernamePasswordAuthenticationToken(fields[0], null,
+                    AuthorityUtils.commaSeparatedStringToAuthorityList(fields[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac newMac = Mac.getInstance(ALGORITHM);
+            newMac.init(key);
+            return newMac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] secret(TokenProperties properties) {
+        if (StringUtils.hasText(properties.getSecret())) {
+            return Base64.getDecoder().decode(properties.getSecret());
+        }
+        log.warn("app.security.token.secret is not set, tokens will only be valid on this instance until it restarts");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springwebflux.tracing;
+
+public enum Phase {
+    SECURITY("security"),
+    ACQUIRE("acquire"),
+    DB("db"),
+    ENCODE("encode");
+
+    private final String metricName;
+
+    Phase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
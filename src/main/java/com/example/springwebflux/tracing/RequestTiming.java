@@ -0,0 +1,56 @@
+package com.example.springwebflux.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class RequestTiming {
+    public static final String ATTRIBUTE = RequestTiming.class.getName();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray durations = new AtomicLongArray(PHASES.length);
+
+    public void recordSince(Phase phase, long phaseStartNanos) {
+        record(phase, System.nanoTime() - phaseStartNanos);
+    }
+
+    public void record(Phase phase, long nanos) {
+        durations.addAndGet(phase.ordinal(), nanos);
+    }
+
+    public void recordSinceRequestStart(Phase phase) {
+        recordSince(phase, startNanos);
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public Map<String, Double> phaseMillis() {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            long nanos = durations.get(phase.ordinal());
+            if (nanos > 0) {
+                phases.put(phase.getMetricName(), millis(nanos));
+            }
+        }
+        return phases;
+    }
+
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : PHASES) {
+            long nanos = durations.get(phase.ordinal());
+            if (nanos > 0) {
+                header.append(phase.getMetricName()).append(";dur=").append(millis(nanos)).append(", ");
+            }
+        }
+        return header.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    public static double millis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MICROSECONDS.toNanos(10)) / 100d;
+    }
+}
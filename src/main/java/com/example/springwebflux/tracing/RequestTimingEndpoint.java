@@ -0,0 +1,19 @@
+package com.example.springwebflux.tracing;
+
+import com.example.springwebflux.domain.RequestTimingSample;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+@Endpoint(id = "timings")
+@RequiredArgsConstructor
+public class RequestTimingEndpoint {
+    private final RequestTimingRecorder recorder;
+
+    @ReadOperation
+    public List<RequestTimingSample> timings() {
+        return recorder.samples();
+    }
+}
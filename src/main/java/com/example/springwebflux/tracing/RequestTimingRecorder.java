@@ -0,0 +1,39 @@
+package com.example.springwebflux.tracing;
+
+import com.example.springwebflux.domain.RequestTimingSample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+public class RequestTimingRecorder {
+    private final AtomicReferenceArray<RequestTimingSample> samples;
+    private final AtomicLong next = new AtomicLong();
+    private final double sampleRate;
+
+    public RequestTimingRecorder(int bufferSize, double sampleRate) {
+        this.samples = new AtomicReferenceArray<>(bufferSize);
+        this.sampleRate = sampleRate;
+    }
+
+    public void offer(Supplier<RequestTimingSample> sample) {
+        if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            samples.set((int) (next.getAndIncrement() % samples.length()), sample.get());
+        }
+    }
+
+    public List<RequestTimingSample> samples() {
+        long last = next.get();
+        List<RequestTimingSample> newestFirst = new ArrayList<>(samples.length());
+        for (long index = last - 1; index >= 0 && index >= last - samples.length(); index--) {
+            RequestTimingSample sample = samples.get((int) (index % samples.length()));
+            if (sample != null) {
+                newestFirst.add(sample);
+            }
+        }
+        return newestFirst;
+    }
+}
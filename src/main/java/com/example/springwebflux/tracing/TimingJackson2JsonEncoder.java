@@ -0,0 +1,51 @@
+package com.example.springwebflux.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TimingJackson2JsonEncoder extends Jackson2JsonEncoder {
+    private static final String TIMING_HINT = RequestTiming.class.getName();
+
+    public TimingJackson2JsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.deferContextual(context -> {
+            RequestTiming timing = context.getOrDefault(RequestTiming.class, null);
+            if (timing == null) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            Map<String, Object> timedHints = hints == null ? new HashMap<>() : new HashMap<>(hints);
+            timedHints.put(TIMING_HINT, timing);
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, timedHints);
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        RequestTiming timing = hints == null ? null : (RequestTiming) hints.get(TIMING_HINT);
+        if (timing == null) {
+            return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        } finally {
+            timing.recordSince(Phase.ENCODE, start);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springwebflux.warmup;
+
+import com.example.springwebflux.config.WarmupProperties;
+import com.example.springwebflux.repository.AnimeRepository;
+import com.example.springwebflux.repository.SnapshotAnimeRepository;
+import com.example.springwebflux.service.TokenService;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Spring Boot only reports readiness once every ApplicationRunner returned, so blocking here keeps the instance out
+// of the load balancer until the pool is open, the snapshot is loaded and the request path has been exercised.
+@Slf4j
+@RequiredArgsConstructor
+public class WarmupRunner implements ApplicationRunner {
+    private static final String WARMUP_USER = "warmup";
+
+    private final WarmupProperties properties;
+    private final List<ConnectionPool> pools;
+    private final AnimeRepository animeRepository;
+    private final TokenService tokenService;
+    private final WebClient.Builder webClientBuilder;
+    private final Environment environment;
+    private final Timer timer;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            warmup().block(properties.getTimeout());
+        } catch (RuntimeException e) {
+            log.warn("Warm-up did not complete, reporting ready anyway", e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    Mono<Void> warmup() {
+        return Mono.when(openConnections(), preload()).then(requests());
+    }
+
+    private Mono<Void> openConnections() {
+        return Flux.fromIterable(pools)
+                .flatMap(ConnectionPool::warmup)
+                .reduce(0, Integer::sum)
+                .doOnNext(opened -> log.info("Warm-up opened {} connections", opened))
+                .onErrorResume(error -> {
+                    log.warn("Warm-up could not open the pool connections", error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> preload() {
+        if (!(animeRepository instanceof SnapshotAnimeRepository)) {
+            return Mono.empty();
+        }
+        return ((SnapshotAnimeRepository) animeRepository).reload()
+                .doOnNext(size -> log.info("Warm-up loaded {} anime into the snapshot", size))
+                .onErrorResume(error -> {
+                    log.warn("Warm-up could not load the anime snapshot", error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Requests go through Netty, the security chain, the controllers and the Jackson encoders exactly like real
+    // traffic. The token is read-only (ROLE_USER), so warm-up never writes.
+    private Mono<Void> requests() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || properties.getIterations() <= 0) {
+            return Mono.empty();
+        }
+        WebClient client = webClientBuilder.baseUrl("http://localhost:" + port).build();
+        String token = tokenService.issue(new UsernamePasswordAuthenticationToken(WARMUP_USER, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))).getToken();
+
+        List<Function<WebClient, WebClient.RequestHeadersSpec<?>>> round = new ArrayList<>();
+        round.add(webClient -> webClient.get().uri("/anime").headers(headers -> headers.setBearerAuth(token)));
+        properties.getHotIds().forEach(id -> round.add(webClient -> webClient.get().uri("/anime/{id}", id)
+                .headers(headers -> headers.setBearerAuth(token))));
+        round.add(webClient -> webClient.get().uri("/anime/{id}", 1));
+        round.add(webClient -> webClient.post().uri("/auth/token"));
+
+        return Flux.range(0, properties.getIterations())
+                .flatMap(iteration -> Flux.fromIterable(round)
+                        .concatMap(request -> request.apply(client)
+                                .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+                                .onErrorReturn(-1)), properties.getConcurrency())
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()))
+                .doOnNext(statuses -> log.info("Warm-up sent {} requests, responses by status: {}",
+                        statuses.values().stream().mapToLong(Long::longValue).sum(), statuses))
+                .then();
+    }
+}
@@ -0,0 +1,21 @@
+CREATE SCHEMA IF NOT EXISTS anime;
+
+CREATE TABLE IF NOT EXISTS anime.anime
+(
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS anime_name_uk ON anime.anime (name);
+
+CREATE TABLE IF NOT EXISTS anime.idempotency_key
+(
+    idempotency_key VARCHAR(512) PRIMARY KEY,
+    status          INT,
+    content_type    VARCHAR(255),
+    body            BYTEA,
+    fingerprint     VARCHAR(64),
+    expires_at      TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_key_expires_at_idx ON anime.idempotency_key (expires_at);
@@ -0,0 +1,105 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.ConcurrencyLimitConfig;
+import com.example.springwebflux.config.ConcurrencyLimitProperties;
+import com.example.springwebflux.limit.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrencyLimitFilterTest {
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(chainCalls::incrementAndGet);
+
+    private AdaptiveConcurrencyLimit readLimit;
+    private Counter readRejections;
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @BeforeEach
+    public void setUp() {
+        readLimit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.9, 2.0, 0.01, 50);
+        readRejections = new SimpleMeterRegistry().counter("rejected");
+        concurrencyLimitFilter = new ConcurrencyLimitFilter(Map.of(ConcurrencyLimitProperties.READS, readLimit),
+                Map.of(ConcurrencyLimitProperties.READS, readRejections), Set.of("GET /anime/export"),
+                Duration.ofSeconds(3));
+    }
+
+    @Test
+    @DisplayName("Filter sheds with 503 and Retry-After once the group's limit is in flight")
+    public void filterShedsWithRetryAfterWhenLimitIsInFlight() {
+        // scenery
+        readLimit.tryAcquire();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+        // execution
+        StepVerifier.create(concurrencyLimitFilter.filter(exchange, chain))
+                // result
+                .expectErrorSatisfies(error -> Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                        ((ResponseStatusException) error).getStatus()))
+                .verify();
+        Assertions.assertEquals("3", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(Boolean.TRUE, exchange.getAttribute(ConcurrencyLimitFilter.SHED_ATTRIBUTE));
+        Assertions.assertEquals(1, readRejections.count());
+        Assertions.assertEquals(0, chainCalls.get());
+    }
+
+    @Test
+    @DisplayName("Filter gives the permit back once the request completed")
+    public void filterReleasesPermitOnCompletion() {
+        // scenery
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+        // execution
+        StepVerifier.create(concurrencyLimitFilter.filter(exchange, chain))
+                // result
+                .verifyComplete();
+        Assertions.assertEquals(0, readLimit.getInFlight());
+        Assertions.assertEquals(1, chainCalls.get());
+    }
+
+    @Test
+    @DisplayName("Filter lets excluded bulk routes through without a permit")
+    public void filterLetsExcludedRoutesThrough() {
+        // scenery
+        readLimit.tryAcquire();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/export"));
+        // execution
+        StepVerifier.create(concurrencyLimitFilter.filter(exchange, chain))
+                // result
+                .verifyComplete();
+        Assertions.assertEquals(1, chainCalls.get());
+        Assertions.assertEquals(1, readLimit.getInFlight());
+        Assertions.assertEquals(0, readRejections.count());
+    }
+
+    @Test
+    @DisplayName("Filter runs after the security chain and the workload lanes")
+    public void filterRunsAfterSecurityAndWorkloadLanes() throws Exception {
+        // scenery
+        Order order = AnnotationUtils.findAnnotation(ConcurrencyLimitConfig.class.getMethod("concurrencyLimitFilter",
+                ConcurrencyLimitProperties.class, MeterRegistry.class), Order.class);
+        // execution
+        // result
+        Assertions.assertNotNull(order);
+        Assertions.assertEquals(WebFilterOrder.CONCURRENCY_LIMIT, order.value());
+        Assertions.assertTrue(order.value() > WebFilterOrder.SECURITY);
+        Assertions.assertTrue(order.value() > WebFilterOrder.WORKLOAD_LANE);
+    }
+}
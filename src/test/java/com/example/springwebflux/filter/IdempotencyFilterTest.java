@@ -0,0 +1,156 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.IdempotencyProperties;
+import com.example.springwebflux.repository.InMemoryIdempotencyStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class IdempotencyFilterTest {
+    private static final String CREATED_BODY = "{\"id\":1,\"name\":\"Naruto\"}";
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    private IdempotencyProperties properties;
+    private IdempotencyFilter idempotencyFilter;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new IdempotencyProperties();
+        idempotencyFilter = new IdempotencyFilter(new InMemoryIdempotencyStore(properties, Clock.systemUTC()), properties);
+        gate.tryEmitEmpty();
+    }
+
+    @Test
+    @DisplayName("A repeated key replays the stored response without running the handler again")
+    public void repeatedKeyReplaysStoredResponse() {
+        // scenery
+        StepVerifier.create(idempotencyFilter.filter(exchange("key", "{\"name\":\"Naruto\"}"), chain(gate.asMono())))
+                .verifyComplete();
+        MockServerWebExchange retry = exchange("key", "{\"name\":\"Naruto\"}");
+        // execution
+        StepVerifier.create(idempotencyFilter.filter(retry, chain(gate.asMono())))
+                // result
+                .verifyComplete();
+        Assertions.assertEquals(1, chainCalls.get());
+        Assertions.assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        Assertions.assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        Assertions.assertEquals(CREATED_BODY, retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("A repeated key with a different body is rejected with 422")
+    public void repeatedKeyWithDifferentBodyIsRejected() {
+        // scenery
+        StepVerifier.create(idempotencyFilter.filter(exchange("key", "{\"name\":\"Naruto\"}"), chain(gate.asMono())))
+                .verifyComplete();
+        // execution
+        StepVerifier.create(idempotencyFilter.filter(exchange("key", "{\"name\":\"Monster\"}"), chain(gate.asMono())))
+                // result
+                .expectErrorSatisfies(error -> Assertions.assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                        ((ResponseStatusException) error).getStatus()))
+                .verify();
+        Assertions.assertEquals(1, chainCalls.get());
+    }
+
+    @Test
+    @DisplayName("A duplicate arriving while the first request runs waits for it and replays its response")
+    public void concurrentDuplicateWaitsForFirstRequest() throws Exception {
+        // scenery
+        Sinks.Empty<Void> slowHandler = Sinks.empty();
+        MockServerWebExchange duplicate = exchange("key", "{\"name\":\"Naruto\"}");
+        CompletableFuture<Void> first = idempotencyFilter
+                .filter(exchange("key", "{\"name\":\"Naruto\"}"), chain(slowHandler.asMono())).toFuture();
+        // execution
+        CompletableFuture<Void> second = idempotencyFilter.filter(duplicate, chain(slowHandler.asMono())).toFuture();
+        Assertions.assertFalse(second.isDone());
+        slowHandler.tryEmitEmpty();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        // result
+        Assertions.assertEquals(1, chainCalls.get());
+        Assertions.assertEquals("true", duplicate.getResponse().getHeaders().getFirst(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        Assertions.assertEquals(CREATED_BODY, duplicate.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("A request body over max-body-size is rejected with 413 before the handler runs")
+    public void oversizedRequestBodyIsRejected() {
+        // scenery
+        properties.setMaxBodySize(DataSize.ofBytes(8));
+        // execution
+        StepVerifier.create(idempotencyFilter.filter(exchange("key", "{\"name\":\"Naruto\"}"), chain(gate.asMono())))
+                // result
+                .expectErrorSatisfies(error -> Assertions.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE,
+                        ((ResponseStatusException) error).getStatus()))
+                .verify();
+        Assertions.assertEquals(0, chainCalls.get());
+    }
+
+    @Test
+    @DisplayName("A response over max-body-size is not kept, so a retry runs the handler again")
+    public void oversizedResponseIsNotReplayed() {
+        // scenery
+        properties.setMaxBodySize(DataSize.ofBytes(16));
+        StepVerifier.create(idempotencyFilter.filter(exchange("key", "{}"), chain(gate.asMono())))
+                .verifyComplete();
+        MockServerWebExchange retry = exchange("key", "{}");
+        // execution
+        StepVerifier.create(idempotencyFilter.filter(retry, chain(gate.asMono())))
+                // result
+                .verifyComplete();
+        Assertions.assertEquals(2, chainCalls.get());
+        Assertions.assertNull(retry.getResponse().getHeaders().getFirst(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        Assertions.assertEquals(CREATED_BODY, retry.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Scopes of different principal, path and key splits never collide")
+    public void scopeKeepsPartsApart() {
+        // scenery
+        String scope = IdempotencyFilter.scope("user:/anime", "", "key");
+        // execution
+        String shifted = IdempotencyFilter.scope("user", "/anime:", "key");
+        // result
+        Assertions.assertNotEquals(scope, shifted);
+    }
+
+    private MockServerWebExchange exchange(String key, String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/anime")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+    private WebFilterChain chain(Mono<Void> handlerDone) {
+        return exchange -> {
+            chainCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            return handlerDone.then(Mono.defer(() -> {
+                response.setStatusCode(HttpStatus.CREATED);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(response.bufferFactory()
+                        .wrap(CREATED_BODY.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+}
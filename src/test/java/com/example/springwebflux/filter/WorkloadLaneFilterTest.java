@@ -0,0 +1,138 @@
+package com.example.springwebflux.filter;
+
+import com.example.springwebflux.config.PersistenceProperties;
+import com.example.springwebflux.config.WorkloadLaneConfig;
+import com.example.springwebflux.config.WorkloadLaneProperties;
+import com.example.springwebflux.limit.AsyncPermits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class WorkloadLaneFilterTest {
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> handlerDone = Sinks.empty();
+    private final WebFilterChain chain = exchange -> {
+        chainCalls.incrementAndGet();
+        return handlerDone.asMono();
+    };
+
+    private Counter rejections;
+    private WorkloadLaneFilter workloadLaneFilter;
+
+    @BeforeEach
+    public void setUp() {
+        rejections = new SimpleMeterRegistry().counter("rejected");
+        WorkloadLaneFilter.Lane lane = new WorkloadLaneFilter.Lane("r2dbc", new AsyncPermits(1, 1), rejections);
+        workloadLaneFilter = new WorkloadLaneFilter(Map.of("PUT /anime/batch", lane), Schedulers.immediate());
+    }
+
+    @Test
+    @DisplayName("Bulk requests past the lane's permits queue, and past max-queued are rejected with 503")
+    public void bulkRequestsQueueThenGetRejected() {
+        // scenery
+        CompletableFuture<Void> running = workloadLaneFilter.filter(exchange("/anime/batch"), chain).toFuture();
+        CompletableFuture<Void> queued = workloadLaneFilter.filter(exchange("/anime/batch"), chain).toFuture();
+        MockServerWebExchange rejected = exchange("/anime/batch");
+        // execution
+        StepVerifier.create(workloadLaneFilter.filter(rejected, chain))
+                // result
+                .expectErrorSatisfies(error -> Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                        ((ResponseStatusException) error).getStatus()))
+                .verify();
+        Assertions.assertEquals(1, chainCalls.get());
+        Assertions.assertFalse(queued.isDone());
+        Assertions.assertEquals(1, rejections.count());
+        Assertions.assertEquals(Boolean.TRUE, rejected.getAttribute(ConcurrencyLimitFilter.SHED_ATTRIBUTE));
+        handlerDone.tryEmitEmpty();
+        Assertions.assertTrue(running.isDone());
+        Assertions.assertTrue(queued.isDone());
+        Assertions.assertEquals(2, chainCalls.get());
+    }
+
+    @Test
+    @DisplayName("Interactive requests pass while the bulk lane is full")
+    public void interactiveRequestsBypassLanes() {
+        // scenery
+        workloadLaneFilter.filter(exchange("/anime/batch"), chain).subscribe();
+        handlerDone.tryEmitEmpty();
+        workloadLaneFilter.filter(exchange("/anime/batch"), exchange -> Mono.never()).subscribe();
+        MockServerWebExchange interactive = MockServerWebExchange.from(MockServerHttpRequest.get("/anime/1"));
+        // execution
+        StepVerifier.create(workloadLaneFilter.filter(interactive, chain))
+                // result
+                .verifyComplete();
+        Assertions.assertEquals(2, chainCalls.get());
+        Assertions.assertEquals(0, rejections.count());
+    }
+
+    @Test
+    @DisplayName("With the JDBC engine POST /anime/batch shares the JDBC pool's lane, PUT stays on R2DBC")
+    public void jdbcEngineMovesEngineRoutesToJdbcLane() {
+        // scenery
+        PersistenceProperties persistence = new PersistenceProperties();
+        persistence.setEngine(PersistenceProperties.Engine.JDBC);
+        persistence.getJdbc().setUrl("jdbc:postgresql://localhost:5432/postgres");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WorkloadLaneFilter configured = laneFilter(persistence, meterRegistry);
+        // execution
+        configured.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/anime/batch")), chain).subscribe();
+        // result
+        Assertions.assertEquals(1, inUse(meterRegistry, "jdbc"));
+        Assertions.assertEquals(0, inUse(meterRegistry, "r2dbc"));
+        Assertions.assertEquals(32 - 4, permits(meterRegistry, "jdbc"));
+        Assertions.assertEquals(10 - 4, permits(meterRegistry, "r2dbc"));
+    }
+
+    @Test
+    @DisplayName("With the sharded engine POST /anime/batch is sized from the shards' pools")
+    public void shardedEngineSizesEngineRoutesFromShardPools() {
+        // scenery
+        PersistenceProperties persistence = new PersistenceProperties();
+        persistence.setEngine(PersistenceProperties.Engine.SHARDED);
+        persistence.getSharding().setMaxPoolSize(8);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WorkloadLaneFilter configured = laneFilter(persistence, meterRegistry);
+        // execution
+        configured.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/anime/batch")), chain).subscribe();
+        // result
+        Assertions.assertEquals(1, inUse(meterRegistry, "sharded"));
+        Assertions.assertEquals(8 - 4, permits(meterRegistry, "sharded"));
+        Assertions.assertNull(meterRegistry.find("workload.lane.permits").tag("lane", "r2dbc").gauge());
+    }
+
+    private WorkloadLaneFilter laneFilter(PersistenceProperties persistence, SimpleMeterRegistry meterRegistry) {
+        R2dbcProperties r2dbcProperties = new R2dbcProperties();
+        r2dbcProperties.getPool().setMaxSize(10);
+        return new WorkloadLaneConfig().workloadLaneFilter(new WorkloadLaneProperties(), r2dbcProperties, persistence,
+                Schedulers.immediate(), meterRegistry);
+    }
+
+    private static double inUse(SimpleMeterRegistry meterRegistry, String lane) {
+        return meterRegistry.get("workload.lane.in-use").tag("lane", lane).gauge().value();
+    }
+
+    private static double permits(SimpleMeterRegistry meterRegistry, String lane) {
+        return meterRegistry.get("workload.lane.permits").tag("lane", lane).gauge().value();
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.put(path));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.springwebflux.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("Try acquire rejects once the limit is in flight")
+    public void tryAcquireRejectsOnceLimitIsInFlight() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.5, 2.0, 0.1, 4);
+        // execution
+        // result
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertFalse(limit.tryAcquire());
+        limit.onIgnored();
+        Assertions.assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("The limit stays put on fast samples while the group is mostly idle")
+    public void limitKeepsStillOnFastSamplesWhileIdle() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, 2.0, 0.1, 4);
+        // execution
+        complete(limit, FAST, 20);
+        // result
+        Assertions.assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("The limit grows on fast samples while at least half of it is in flight")
+    public void limitGrowsOnFastSamplesWhileBusy() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, 2.0, 0.1, 4);
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        // execution
+        limit.onSuccess(FAST);
+        limit.onSuccess(FAST);
+        // result
+        Assertions.assertEquals(6, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("A single slow sample keeps the limit, a slow window shrinks it")
+    public void singleSlowSampleKeepsLimitButSlowWindowShrinksIt() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 30, 0.5, 2.0, 0.01, 10);
+        complete(limit, FAST, 10);
+        // execution
+        complete(limit, FAST, 9);
+        complete(limit, SLOW, 1);
+        int afterOutlier = limit.getLimit();
+        complete(limit, SLOW, 10);
+        // result
+        Assertions.assertEquals(10, afterOutlier);
+        Assertions.assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("A gradual slowdown shrinks the limit once it drifts past the minimum latency")
+    public void gradualSlowdownShrinksLimitAgainstMinimumLatency() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 30, 0.5, 2.0, 0.01, 10);
+        // execution
+        for (int window = 0; window < 4; window++) {
+            complete(limit, (long) (FAST * Math.pow(1.2, window)), 10);
+        }
+        int beforeTolerance = limit.getLimit();
+        complete(limit, (long) (FAST * Math.pow(1.2, 4)), 10);
+        // result
+        Assertions.assertEquals(10, beforeTolerance);
+        Assertions.assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Dropped requests shrink the limit but never below the minimum")
+    public void droppedRequestsShrinkLimitDownToMinimum() {
+        // scenery
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 3, 10, 0.5, 2.0, 0.1, 4);
+        // execution
+        limit.tryAcquire();
+        limit.onDropped(FAST);
+        // result
+        Assertions.assertEquals(3, limit.getLimit());
+        Assertions.assertEquals(0, limit.getInFlight());
+    }
+
+    private static void complete(AdaptiveConcurrencyLimit limit, long rttNanos, int requests) {
+        for (int i = 0; i < requests; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.springwebflux.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class AsyncPermitsTest {
+
+    @Test
+    @DisplayName("Acquire waits for a released permit and rejects once the queue is full")
+    public void acquireWaitsForReleaseAndRejectsWhenQueueIsFull() {
+        // scenery
+        AsyncPermits permits = new AsyncPermits(1, 1);
+        AtomicBoolean granted = new AtomicBoolean();
+        StepVerifier.create(permits.acquire()).verifyComplete();
+        // execution
+        permits.acquire().subscribe(null, null, () -> granted.set(true));
+        // result
+        StepVerifier.create(permits.acquire())
+                .expectError(AsyncPermits.PermitsExhaustedException.class)
+                .verify();
+        Assertions.assertFalse(granted.get());
+        Assertions.assertEquals(1, permits.getQueued());
+        permits.release();
+        Assertions.assertTrue(granted.get());
+        Assertions.assertEquals(1, permits.getInUse());
+        Assertions.assertEquals(0, permits.getQueued());
+    }
+
+    @Test
+    @DisplayName("A waiter cancelled before its turn does not take a permit")
+    public void cancelledWaiterDoesNotTakePermit() {
+        // scenery
+        AsyncPermits permits = new AsyncPermits(1, 2);
+        StepVerifier.create(permits.acquire()).verifyComplete();
+        Disposable cancelled = permits.acquire().subscribe();
+        // execution
+        cancelled.dispose();
+        permits.release();
+        // result
+        Assertions.assertEquals(0, permits.getInUse());
+        Assertions.assertEquals(0, permits.getQueued());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.springwebflux.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DroppingAsyncAppenderTest {
+
+    @Test
+    @DisplayName("Append drops and counts events instead of blocking when the queue is full")
+    public void appendDropsAndCountsWhenQueueIsFull() throws Exception {
+        // scenery
+        LoggerContext context = new LoggerContext();
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SlowAppender slow = new SlowAppender(taken, release);
+        slow.setContext(context);
+        slow.start();
+        DroppingAsyncAppender async = new DroppingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(1);
+        async.addAppender(slow);
+        async.start();
+        // execution
+        async.doAppend(event("taken by the worker"));
+        Assertions.assertTrue(taken.await(1, TimeUnit.SECONDS));
+        async.doAppend(event("queued"));
+        async.doAppend(event("dropped"));
+        async.doAppend(event("dropped"));
+        // result
+        Assertions.assertEquals(2, async.getDroppedCount());
+        release.countDown();
+        async.stop();
+    }
+
+    @Test
+    @DisplayName("Append counts every event it does not deliver while threads log concurrently")
+    public void appendCountsEveryUndeliveredEventUnderContention() throws Exception {
+        // scenery
+        LoggerContext context = new LoggerContext();
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SlowAppender slow = new SlowAppender(taken, release);
+        slow.setContext(context);
+        slow.start();
+        DroppingAsyncAppender async = new DroppingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(16);
+        async.addAppender(slow);
+        async.start();
+        int threads = 8;
+        int eventsPerThread = 500;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // execution
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int index = 0; index < eventsPerThread; index++) {
+                    async.doAppend(event("contended"));
+                }
+            });
+        }
+        go.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        release.countDown();
+        async.stop();
+        // result
+        Assertions.assertEquals(threads * eventsPerThread, slow.appended.get() + async.getDroppedCount());
+    }
+
+    private static ILoggingEvent event(String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage(message);
+        event.setLevel(ch.qos.logback.classic.Level.INFO);
+        event.setLoggerName("test");
+        return event;
+    }
+
+    private static class SlowAppender extends AppenderBase<ILoggingEvent> {
+        private final CountDownLatch taken;
+        private final CountDownLatch release;
+        private final AtomicInteger appended = new AtomicInteger();
+
+        private SlowAppender(CountDownLatch taken, CountDownLatch release) {
+            this.taken = taken;
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            appended.incrementAndGet();
+            taken.countDown();
+            try {
+                release.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
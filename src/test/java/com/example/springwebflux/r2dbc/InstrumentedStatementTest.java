@@ -0,0 +1,53 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.config.SqlStatisticsProperties;
+import com.example.springwebflux.domain.StatementStatistics;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+@ExtendWith(SpringExtension.class)
+class InstrumentedStatementTest {
+    @Mock
+    private Statement statementMock;
+    @Mock
+    private Result resultMock;
+
+    @Test
+    @DisplayName("A slow subscriber shows up as drain time, not as execution time of the statement")
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void slowSubscriberIsRecordedAsDrainTime() {
+        // scenery
+        BDDMockito.when(statementMock.execute()).thenReturn((Flux) Flux.just(resultMock));
+        BDDMockito.when(resultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just("Naruto", "Monster"));
+        SqlStatistics sqlStatistics = new SqlStatistics(new SqlStatisticsProperties());
+        InstrumentedStatement statement = new InstrumentedStatement(statementMock, "SELECT name FROM anime", null,
+                sqlStatistics, null);
+        // execution
+        Result result = Flux.from(statement.execute()).blockFirst();
+        StepVerifier.create(Flux.from(result.map((row, metadata) -> row.get("name"))), 1)
+                .expectNext("Naruto")
+                .thenAwait(Duration.ofMillis(300))
+                .thenRequest(1)
+                .expectNext("Monster")
+                .verifyComplete();
+        // result
+        StatementStatistics select = sqlStatistics.top(1, Comparator.comparingDouble(StatementStatistics::getTotalMillis))
+                .get(0);
+        Assertions.assertEquals(2, select.getRows());
+        Assertions.assertTrue(select.getMaxMillis() < 300, "execution " + select.getMaxMillis());
+        Assertions.assertTrue(select.getTotalDrainMillis() >= 300, "drain " + select.getTotalDrainMillis());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.springwebflux.r2dbc;
+
+import com.example.springwebflux.config.SqlStatisticsProperties;
+import com.example.springwebflux.domain.StatementStatistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class SqlStatisticsTest {
+
+    @Test
+    @DisplayName("ShapeOf replaces bind markers and collapses repeated value rows")
+    public void shapeOfReplacesBindMarkersAndCollapsesRows() {
+        // execution
+        String shape = SqlStatistics.shapeOf("INSERT INTO anime (name)\n  VALUES ($1), ($2), ($3)");
+        // result
+        Assertions.assertEquals("INSERT INTO anime (name) VALUES (?), ...", shape);
+    }
+
+    @Test
+    @DisplayName("Top groups executions by statement shape and orders by the given comparator")
+    public void topGroupsByShapeAndOrders() {
+        // scenery
+        SqlStatistics statistics = new SqlStatistics(new SqlStatisticsProperties());
+        // execution
+        statistics.record("SELECT * FROM anime WHERE id = $1", TimeUnit.MILLISECONDS.toNanos(5), 0, 1, Map.of());
+        statistics.record("SELECT * FROM anime WHERE id = :id", TimeUnit.MILLISECONDS.toNanos(7), 0, 1, Map.of());
+        statistics.record("SELECT * FROM anime", TimeUnit.MILLISECONDS.toNanos(300), 0, 10, Map.of());
+        // result
+        List<StatementStatistics> top = statistics.top(10, Comparator.comparingLong(StatementStatistics::getExecutions));
+        Assertions.assertEquals(List.of("SELECT * FROM anime WHERE id = ?", "SELECT * FROM anime"),
+                top.stream().map(StatementStatistics::getSql).collect(Collectors.toList()));
+        Assertions.assertEquals(2, top.get(0).getExecutions());
+        Assertions.assertEquals(1, top.get(1).getSlowExecutions());
+    }
+
+    @Test
+    @DisplayName("Record counts slow executions by the time to the first row, not by the time spent draining")
+    public void recordKeepsDrainTimeOutOfSlowExecutions() {
+        // scenery
+        SqlStatistics statistics = new SqlStatistics(new SqlStatisticsProperties());
+        // execution
+        statistics.record("SELECT * FROM anime", TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(2), 10, Map.of());
+        // result
+        StatementStatistics select = statistics.top(1, Comparator.comparingDouble(StatementStatistics::getTotalMillis)).get(0);
+        Assertions.assertEquals(0, select.getSlowExecutions());
+        Assertions.assertEquals(5.0, select.getMaxMillis());
+        Assertions.assertEquals(2000.0, select.getTotalDrainMillis());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.AnimeImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+
+@ExtendWith(SpringExtension.class)
+class AnimeCopyRepositoryTest {
+    @Mock
+    private DataSource dataSourceMock;
+    @Mock
+    private Connection connectionMock;
+    @Mock
+    private PGConnection pgConnectionMock;
+    @Mock
+    private CopyManager copyManagerMock;
+    @Mock
+    private CopyOut copyOutMock;
+    @Mock
+    private CopyIn copyInMock;
+    @Mock
+    private Statement statementMock;
+
+    private Scheduler scheduler;
+    private AnimeCopyRepository animeCopyRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        scheduler = Schedulers.newSingle("jdbc-test");
+        animeCopyRepository = new AnimeCopyRepository(dataSourceMock, scheduler);
+        BDDMockito.when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        BDDMockito.when(connectionMock.unwrap(PGConnection.class)).thenReturn(pgConnectionMock);
+        BDDMockito.when(pgConnectionMock.getCopyAPI()).thenReturn(copyManagerMock);
+        BDDMockito.when(copyManagerMock.copyOut(AnimeCopyRepository.EXPORT_CSV)).thenReturn(copyOutMock);
+        BDDMockito.when(copyManagerMock.copyIn(AnimeCopyRepository.IMPORT_CSV)).thenReturn(copyInMock);
+        BDDMockito.when(connectionMock.createStatement()).thenReturn(statementMock);
+        BDDMockito.when(copyOutMock.readFromCopy()).thenReturn(
+                bytes("id,name\n"), bytes("1,Naruto\n"), bytes("2,Bleach\n"), null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("Export csv gathers COPY rows into chunks of the requested size")
+    public void exportCsvGathersRowsIntoChunks() throws Exception {
+        // execution
+        StepVerifier.create(animeCopyRepository.exportCsv(new DefaultDataBufferFactory(), 16).map(this::string))
+                // result
+                .expectNext("id,name\n1,Naruto\n")
+                .expectNext("2,Bleach\n")
+                .verifyComplete();
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).close();
+    }
+
+    @Test
+    @DisplayName("Export csv only reads rows on demand and cancels the COPY when the client goes away")
+    public void exportCsvReadsOnDemandAndCancelsCopy() throws Exception {
+        // scenery
+        BDDMockito.when(copyOutMock.isActive()).thenReturn(true);
+        // execution
+        StepVerifier.create(animeCopyRepository.exportCsv(new DefaultDataBufferFactory(), 1).map(this::string), 1)
+                // result
+                .expectNext("id,name\n")
+                .thenCancel()
+                .verify();
+        Mockito.verify(copyOutMock, Mockito.timeout(1000)).cancelCopy();
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).close();
+        Mockito.verify(copyOutMock, Mockito.atMost(2)).readFromCopy();
+    }
+
+    @Test
+    @DisplayName("Import csv copies every chunk, merges the staging table and commits")
+    public void importCsvCopiesChunksMergesAndCommits() throws Exception {
+        // scenery
+        BDDMockito.when(copyInMock.endCopy()).thenReturn(3L);
+        BDDMockito.when(statementMock.executeUpdate(AnimeCopyRepository.MERGE_STAGING_TABLE)).thenReturn(2);
+        // execution
+        StepVerifier.create(animeCopyRepository.importCsv(Flux.just(bytes("\"Naruto\"\n"), bytes("\"Bleach\"\n\"Bleach\"\n"))))
+                // result
+                .expectNext(new AnimeImportResult(2, 0, 1))
+                .verifyComplete();
+        Mockito.verify(statementMock).execute(AnimeCopyRepository.CREATE_STAGING_TABLE);
+        Mockito.verify(copyInMock, Mockito.times(2)).writeToCopy(ArgumentMatchers.any(byte[].class), ArgumentMatchers.eq(0), ArgumentMatchers.anyInt());
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).commit();
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).close();
+    }
+
+    @Test
+    @DisplayName("Import csv rolls back when the upload fails")
+    public void importCsvRollsBackWhenUploadFails() throws Exception {
+        // scenery
+        BDDMockito.when(copyInMock.isActive()).thenReturn(true);
+        // execution
+        StepVerifier.create(animeCopyRepository.importCsv(Flux.concat(Flux.just(bytes("\"Naruto\"\n")),
+                Flux.error(new IllegalStateException("client went away")))))
+                // result
+                .expectError(IllegalStateException.class)
+                .verify();
+        Mockito.verify(copyInMock, Mockito.timeout(1000)).cancelCopy();
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).rollback();
+        Mockito.verify(connectionMock, Mockito.never()).commit();
+    }
+
+    private String string(DataBuffer buffer) {
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String row) {
+        return row.getBytes(StandardCharsets.UTF_8);
+    }
+}
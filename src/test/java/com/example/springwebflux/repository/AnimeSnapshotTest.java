@@ -0,0 +1,38 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+class AnimeSnapshotTest {
+
+    @Test
+    @DisplayName("Upsert merges changes in id order and keeps the last change per id")
+    public void upsertMergesChangesInIdOrder() {
+        // scenery
+        AnimeSnapshot snapshot = AnimeSnapshot.of(List.of(new Anime(5, "Bleach"), new Anime(1, "Naruto")));
+        // execution
+        AnimeSnapshot updated = snapshot.upsert(List.of(new Anime(7, "One Piece"), new Anime(5, "Bleach TYBW"),
+                new Anime(3, "Monster"), new Anime(7, "One Piece Film")));
+        // result
+        Assertions.assertArrayEquals(new Anime[]{new Anime(1, "Naruto"), new Anime(3, "Monster"),
+                new Anime(5, "Bleach TYBW"), new Anime(7, "One Piece Film")}, updated.animes());
+        Assertions.assertEquals(new Anime(5, "Bleach"), snapshot.find(5));
+    }
+
+    @Test
+    @DisplayName("Remove drops the given ids and find no longer returns them")
+    public void removeDropsGivenIds() {
+        // scenery
+        AnimeSnapshot snapshot = AnimeSnapshot.of(List.of(new Anime(1, "Naruto"), new Anime(2, "Bleach")));
+        // execution
+        AnimeSnapshot updated = snapshot.remove(Set.of(1, 9));
+        // result
+        Assertions.assertNull(updated.find(1));
+        Assertions.assertEquals(1, updated.size());
+    }
+}
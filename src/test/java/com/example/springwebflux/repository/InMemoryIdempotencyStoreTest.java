@@ -0,0 +1,139 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.IdempotencyProperties;
+import com.example.springwebflux.domain.IdempotentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+class InMemoryIdempotencyStoreTest {
+    private final IdempotentResponse response = new IdempotentResponse(201, "application/json", "{\"id\":1}".getBytes(), "fingerprint");
+
+    private IdempotencyProperties properties;
+    private MutableClock clock;
+    private InMemoryIdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        clock = new MutableClock();
+        idempotencyStore = new InMemoryIdempotencyStore(properties, clock);
+    }
+
+    @Test
+    @DisplayName("Claim returns false while the key is owned by another request")
+    public void claimReturnsFalseWhileKeyIsOwned() {
+        // scenery
+        idempotencyStore.claim("key").block();
+        // execution
+        // result
+        StepVerifier.create(idempotencyStore.claim("key"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Await waits for the in-flight request and returns its response")
+    public void awaitReturnsResponseOfInFlightRequest() {
+        // scenery
+        idempotencyStore.claim("key").block();
+        // execution
+        // result
+        StepVerifier.create(idempotencyStore.await("key"))
+                .expectSubscription()
+                .then(() -> idempotencyStore.complete("key", response).block())
+                .expectNext(response)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Await completes empty when the in-flight request is released")
+    public void awaitCompletesEmptyWhenReleased() {
+        // scenery
+        idempotencyStore.claim("key").block();
+        // execution
+        // result
+        StepVerifier.create(idempotencyStore.await("key"))
+                .expectSubscription()
+                .then(() -> idempotencyStore.release("key").block())
+                .verifyComplete();
+        StepVerifier.create(idempotencyStore.claim("key"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Claim succeeds again once the stored response expired")
+    public void claimSucceedsAfterTtl() {
+        // scenery
+        idempotencyStore.claim("key").block();
+        idempotencyStore.complete("key", response).block();
+        // execution
+        clock.advance(properties.getTtl().plusSeconds(1));
+        // result
+        StepVerifier.create(idempotencyStore.claim("key"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Await completes empty once the stored response expired")
+    public void awaitCompletesEmptyAfterTtl() {
+        // scenery
+        idempotencyStore.claim("key").block();
+        idempotencyStore.complete("key", response).block();
+        // execution
+        clock.advance(properties.getTtl().plusSeconds(1));
+        // result
+        StepVerifier.create(idempotencyStore.await("key"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("The oldest key is evicted when the store is full")
+    public void oldestKeyIsEvictedWhenFull() {
+        // scenery
+        idempotencyStore.claim("first").block();
+        idempotencyStore.claim("second").block();
+        // execution
+        idempotencyStore.claim("third").block();
+        // result
+        StepVerifier.create(idempotencyStore.claim("first"))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(idempotencyStore.claim("third"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2021-01-01T00:00:00Z");
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class JdbcAnimeRepositoryTest {
+    @Mock
+    private DataSource dataSourceMock;
+    @Mock
+    private Connection connectionMock;
+    @Mock
+    private PreparedStatement statementMock;
+    @Mock
+    private ResultSet resultSetMock;
+
+    private Scheduler scheduler;
+    private JdbcAnimeRepository jdbcAnimeRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        scheduler = Schedulers.newSingle("jdbc-test");
+        jdbcAnimeRepository = new JdbcAnimeRepository(dataSourceMock, scheduler, 2);
+        BDDMockito.when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+        BDDMockito.when(connectionMock.prepareStatement(ArgumentMatchers.anyString())).thenReturn(statementMock);
+        BDDMockito.when(statementMock.executeQuery()).thenReturn(resultSetMock);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    @DisplayName("Find by id maps the row and releases the connection")
+    public void findByIdMapsRowAndReleasesConnection() throws Exception {
+        // scenery
+        BDDMockito.when(resultSetMock.next()).thenReturn(true);
+        BDDMockito.when(resultSetMock.getInt("id")).thenReturn(1);
+        BDDMockito.when(resultSetMock.getString("name")).thenReturn("Naruto");
+        // execution
+        StepVerifier.create(jdbcAnimeRepository.findById(1))
+                // result
+                .expectNext(new Anime(1, "Naruto"))
+                .verifyComplete();
+        Mockito.verify(connectionMock).close();
+    }
+
+    @Test
+    @DisplayName("Find all streams rows through a cursor and releases the connection")
+    public void findAllStreamsRowsThroughCursor() throws Exception {
+        // scenery
+        BDDMockito.when(resultSetMock.next()).thenReturn(true, true, false);
+        BDDMockito.when(resultSetMock.getInt("id")).thenReturn(1, 2);
+        BDDMockito.when(resultSetMock.getString("name")).thenReturn("Naruto", "Bleach");
+        // execution
+        StepVerifier.create(jdbcAnimeRepository.findAll(), 1)
+                // result
+                .expectNext(new Anime(1, "Naruto"))
+                .thenRequest(1)
+                .expectNext(new Anime(2, "Bleach"))
+                .thenRequest(1)
+                .verifyComplete();
+        Mockito.verify(connectionMock).setAutoCommit(false);
+        Mockito.verify(statementMock).setFetchSize(2);
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).close();
+    }
+
+    @Test
+    @DisplayName("Save fails with AnimeNotFoundException when the anime to update does not exist")
+    public void saveFailsWhenAnimeToUpdateDoesNotExist() throws Exception {
+        // scenery
+        BDDMockito.when(statementMock.executeUpdate()).thenReturn(0);
+        // execution
+        StepVerifier.create(jdbcAnimeRepository.save(new Anime(1, "Naruto")))
+                // result
+                .expectError(AnimeNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Save all rolls the batch back when the subscriber fails on an emitted anime")
+    public void saveAllRollsBackWhenSubscriberFails() throws Exception {
+        // scenery
+        BDDMockito.when(resultSetMock.next()).thenReturn(true);
+        BDDMockito.when(resultSetMock.getInt(1)).thenReturn(1, 2);
+        Flux<Anime> saved = jdbcAnimeRepository.saveAll(List.of(new Anime(null, "Naruto"), new Anime(null, "")))
+                .doOnNext(anime -> {
+                    if (anime.getName().isEmpty()) {
+                        throw new IllegalArgumentException("Invalid Name");
+                    }
+                });
+        // execution
+        StepVerifier.create(saved)
+                // result
+                .expectNext(new Anime(1, "Naruto"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        Mockito.verify(connectionMock, Mockito.timeout(1000)).rollback();
+        Mockito.verify(connectionMock, Mockito.never()).commit();
+    }
+}
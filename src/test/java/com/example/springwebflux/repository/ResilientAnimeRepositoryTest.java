@@ -0,0 +1,167 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.config.RepositoryResilienceProperties;
+import com.example.springwebflux.domain.Anime;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@ExtendWith(SpringExtension.class)
+class ResilientAnimeRepositoryTest {
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead writeBulkhead;
+    private ResilientAnimeRepository resilientAnimeRepository;
+
+    @BeforeEach
+    public void setUp() {
+        RepositoryResilienceProperties properties = new RepositoryResilienceProperties();
+        properties.setReadTimeout(Duration.ofMillis(100));
+        properties.setFallbackEnabled(true);
+        circuitBreaker = CircuitBreaker.of("animeRepository", CircuitBreakerConfig.custom()
+                .ignoreException(ResilientAnimeRepository::isCallerError)
+                .build());
+        writeBulkhead = Bulkhead.of("writes", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        resilientAnimeRepository = new ResilientAnimeRepository(animeRepositoryMock, properties, circuitBreaker,
+                Bulkhead.ofDefaults("reads"), writeBulkhead);
+    }
+
+    @Test
+    @DisplayName("Find by id returns Service Unavailable when the query times out")
+    public void findByIdReturnsServiceUnavailableWhenQueryTimesOut() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.never());
+        // execution
+        // result
+        StepVerifier.create(resilientAnimeRepository.findById(1))
+                .expectErrorMatches(this::isServiceUnavailable)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Find by id returns the last known anime while the circuit breaker is open")
+    public void findByIdReturnsLastKnownAnimeWhileCircuitBreakerIsOpen() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(animeValid()));
+        resilientAnimeRepository.findById(1).block();
+        // execution
+        circuitBreaker.transitionToOpenState();
+        // result
+        StepVerifier.create(resilientAnimeRepository.findById(1))
+                .expectNext(animeValid())
+                .verifyComplete();
+        StepVerifier.create(resilientAnimeRepository.findById(2))
+                .expectErrorMatches(this::isServiceUnavailable)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Find all keeps streaming past the timeout while rows keep coming")
+    public void findAllStreamsPastTimeoutWhileRowsKeepComing() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findAll())
+                .thenReturn(Flux.interval(Duration.ofMillis(20)).take(10).map(tick -> animeValid()));
+        // execution
+        // result
+        StepVerifier.create(resilientAnimeRepository.findAll())
+                .expectNextCount(10)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Find all returns Service Unavailable when a row takes longer than the timeout")
+    public void findAllReturnsServiceUnavailableWhenRowIsLate() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findAll())
+                .thenReturn(Flux.concat(Flux.just(animeValid()),
+                        Mono.delay(Duration.ofMillis(300)).map(tick -> animeValid())));
+        // execution
+        // result
+        StepVerifier.create(resilientAnimeRepository.findAll())
+                .expectNextCount(1)
+                .expectErrorMatches(this::isServiceUnavailable)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Updates of missing rows do not count as failures of the circuit breaker, lost connections do")
+    public void missingRowsDoNotCountAsFailures() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
+                .thenReturn(Mono.error(new AnimeNotFoundException(1)))
+                .thenReturn(Mono.error(new TransientDataAccessResourceException("Connection closed. Row does not exist.")));
+        // execution
+        StepVerifier.create(resilientAnimeRepository.save(animeValid()))
+                .expectError(AnimeNotFoundException.class)
+                .verify();
+        StepVerifier.create(resilientAnimeRepository.save(animeValid()))
+                .expectError(TransientDataAccessResourceException.class)
+                .verify();
+        // result
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Duplicate names do not count as failures of the circuit breaker")
+    public void duplicateNamesDoNotCountAsFailures() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate key")));
+        // execution
+        StepVerifier.create(resilientAnimeRepository.save(animeValid()))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+        // result
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Save returns Service Unavailable when the write bulkhead is full")
+    public void saveReturnsServiceUnavailableWhenWriteBulkheadIsFull() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.save(ArgumentMatchers.any(Anime.class)))
+                .thenReturn(Mono.never());
+        resilientAnimeRepository.save(animeValid()).subscribe();
+        // execution
+        // result
+        StepVerifier.create(resilientAnimeRepository.save(animeValid()))
+                .expectErrorMatches(this::isServiceUnavailable)
+                .verify();
+        Assertions.assertEquals(0, writeBulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    private boolean isServiceUnavailable(Throwable throwable) {
+        return throwable instanceof ResponseStatusException
+                && ((ResponseStatusException) throwable).getStatus() == HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    private Anime animeValid() {
+        return Anime.builder().id(1).name("Hellsing").build();
+    }
+}
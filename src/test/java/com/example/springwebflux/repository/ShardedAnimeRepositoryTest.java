@@ -0,0 +1,172 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class ShardedAnimeRepositoryTest {
+    @Mock
+    private ConnectionFactory evenShardMock;
+    @Mock
+    private ConnectionFactory oddShardMock;
+    @Mock
+    private Connection evenConnectionMock;
+    @Mock
+    private Connection oddConnectionMock;
+    @Mock
+    private Statement evenStatementMock;
+    @Mock
+    private Statement oddStatementMock;
+    @Mock
+    private Result evenResultMock;
+    @Mock
+    private Result oddResultMock;
+
+    private ShardedAnimeRepository shardedAnimeRepository;
+
+    @BeforeEach
+    public void setUp() {
+        shardedAnimeRepository = new ShardedAnimeRepository(List.of(evenShardMock, oddShardMock));
+        stubShard(evenShardMock, evenConnectionMock, evenStatementMock, evenResultMock);
+        stubShard(oddShardMock, oddConnectionMock, oddStatementMock, oddResultMock);
+    }
+
+    @Test
+    @DisplayName("Find by id only queries the shard the id hashes to")
+    public void findByIdQueriesOwningShard() {
+        // scenery
+        BDDMockito.when(oddResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just(new Anime(3, "Naruto")));
+        // execution
+        StepVerifier.create(shardedAnimeRepository.findById(3))
+                // result
+                .expectNext(new Anime(3, "Naruto"))
+                .verifyComplete();
+        Mockito.verify(oddStatementMock).bind(0, 3);
+        Mockito.verify(oddConnectionMock).close();
+        Mockito.verifyNoInteractions(evenShardMock);
+    }
+
+    @Test
+    @DisplayName("Find all merges every shard into one flux ordered by id")
+    public void findAllMergesShardsInIdOrder() {
+        // scenery
+        BDDMockito.when(evenResultMock.map(ArgumentMatchers.any()))
+                .thenReturn(Flux.just(new Anime(2, "Bleach"), new Anime(4, "Monster")));
+        BDDMockito.when(oddResultMock.map(ArgumentMatchers.any()))
+                .thenReturn(Flux.just(new Anime(1, "Naruto"), new Anime(3, "Berserk")));
+        // execution
+        StepVerifier.create(shardedAnimeRepository.findAll().map(Anime::getId))
+                // result
+                .expectNext(1, 2, 3, 4)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Save all writes each shard's group in a transaction and rolls every shard back when the subscriber fails")
+    public void saveAllRollsBackEveryShardWhenSubscriberFails() {
+        // scenery
+        BDDMockito.when(evenResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just("Old name"));
+        BDDMockito.when(oddResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just("Old name"));
+        BDDMockito.when(evenResultMock.getRowsUpdated()).thenReturn(Mono.just(1));
+        BDDMockito.when(oddResultMock.getRowsUpdated()).thenReturn(Mono.just(1));
+        Flux<Anime> saved = shardedAnimeRepository.saveAll(List.of(new Anime(1, "Naruto"), new Anime(2, "")))
+                .doOnNext(anime -> {
+                    if (anime.getName().isEmpty()) {
+                        throw new IllegalArgumentException("Invalid Name");
+                    }
+                });
+        // execution
+        StepVerifier.create(saved)
+                // result
+                .thenConsumeWhile(anime -> true)
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        Mockito.verify(evenConnectionMock).beginTransaction();
+        Mockito.verify(oddConnectionMock).beginTransaction();
+        Mockito.verify(evenConnectionMock).rollbackTransaction();
+        Mockito.verify(oddConnectionMock).rollbackTransaction();
+        Mockito.verify(evenConnectionMock, Mockito.never()).commitTransaction();
+        Mockito.verify(oddConnectionMock, Mockito.never()).commitTransaction();
+    }
+
+    @Test
+    @DisplayName("Save all inserts new anime on the shards their names hash to, in one transaction per shard")
+    public void saveAllInsertsOnEachNameShard() {
+        // scenery
+        BDDMockito.when(evenResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just(4));
+        BDDMockito.when(oddResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just(5));
+        // execution
+        StepVerifier.create(shardedAnimeRepository.saveAll(List.of(new Anime(null, "Naruto"), new Anime(null, "Monster"))))
+                // result
+                .expectNext(new Anime(5, "Naruto"), new Anime(4, "Monster"))
+                .verifyComplete();
+        Mockito.verify(evenStatementMock).bind(0, "Monster");
+        Mockito.verify(oddStatementMock).bind(0, "Naruto");
+        Mockito.verify(evenConnectionMock).commitTransaction();
+        Mockito.verify(oddConnectionMock).commitTransaction();
+    }
+
+    @Test
+    @DisplayName("Save inserts a new anime together with its name claim on the shard the name hashes to")
+    public void saveInsertsNewAnimeOnNameShard() {
+        // scenery
+        BDDMockito.when(evenResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just(4));
+        // execution
+        StepVerifier.create(shardedAnimeRepository.save(new Anime(null, "Monster")))
+                // result
+                .expectNext(new Anime(4, "Monster"))
+                .verifyComplete();
+        Mockito.verify(evenConnectionMock).createStatement(ArgumentMatchers.contains(ShardedAnimeRepository.NAME_TABLE));
+        Mockito.verify(evenStatementMock).bind(0, "Monster");
+        Mockito.verifyNoInteractions(oddShardMock);
+    }
+
+    @Test
+    @DisplayName("Save rolls a rename back on every shard when the new name is taken on another shard")
+    public void saveRollsRenameBackWhenNameIsTaken() {
+        // scenery
+        BDDMockito.when(evenResultMock.map(ArgumentMatchers.any())).thenReturn(Flux.just("Monster"));
+        BDDMockito.when(oddResultMock.getRowsUpdated())
+                .thenReturn(Mono.error(new R2dbcDataIntegrityViolationException("duplicate key value")));
+        // execution
+        StepVerifier.create(shardedAnimeRepository.save(new Anime(2, "Naruto")))
+                // result
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+        Mockito.verify(oddConnectionMock).createStatement(ArgumentMatchers.startsWith(
+                "INSERT INTO " + ShardedAnimeRepository.NAME_TABLE));
+        Mockito.verify(evenConnectionMock).rollbackTransaction();
+        Mockito.verify(oddConnectionMock).rollbackTransaction();
+        Mockito.verify(evenConnectionMock, Mockito.never()).createStatement(ArgumentMatchers.startsWith("UPDATE"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void stubShard(ConnectionFactory shard, Connection connection, Statement statement, Result result) {
+        BDDMockito.when(shard.create()).thenReturn((Mono) Mono.just(connection));
+        BDDMockito.when(connection.createStatement(ArgumentMatchers.anyString())).thenReturn(statement);
+        BDDMockito.when(connection.beginTransaction()).thenReturn(Mono.empty());
+        BDDMockito.when(connection.commitTransaction()).thenReturn(Mono.empty());
+        BDDMockito.when(connection.rollbackTransaction()).thenReturn(Mono.empty());
+        BDDMockito.when(connection.close()).thenReturn(Mono.empty());
+        BDDMockito.when(statement.execute()).thenReturn((Flux) Flux.just(result));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.springwebflux.repository;
+
+import com.example.springwebflux.domain.Anime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class SnapshotAnimeRepositoryTest {
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    private SnapshotAnimeRepository snapshotAnimeRepository;
+
+    @BeforeEach
+    public void setUp() {
+        snapshotAnimeRepository = new SnapshotAnimeRepository(animeRepositoryMock, Duration.ofMinutes(5));
+        BDDMockito.when(animeRepositoryMock.findAll())
+                .thenReturn(Flux.just(new Anime(3, "Bleach"), new Anime(1, "Naruto")));
+    }
+
+    @Test
+    @DisplayName("Reads are served in id order from the snapshot once it is loaded")
+    public void readsAreServedFromSnapshotOnceLoaded() {
+        // scenery
+        StepVerifier.create(snapshotAnimeRepository.reload()).expectNext(2).verifyComplete();
+        // execution
+        // result
+        StepVerifier.create(snapshotAnimeRepository.findAll())
+                .expectNext(new Anime(1, "Naruto"), new Anime(3, "Bleach"))
+                .verifyComplete();
+        StepVerifier.create(snapshotAnimeRepository.findById(3)).expectNext(new Anime(3, "Bleach")).verifyComplete();
+        StepVerifier.create(snapshotAnimeRepository.findById(2)).verifyComplete();
+        Mockito.verify(animeRepositoryMock, Mockito.never()).findById(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("Writes are applied to the loaded snapshot")
+    public void writesAreAppliedToSnapshot() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.saveAll(ArgumentMatchers.<Anime>anyIterable()))
+                .thenReturn(Flux.just(new Anime(2, "One Piece"), new Anime(3, "Bleach TYBW")));
+        BDDMockito.when(animeRepositoryMock.deleteById(1)).thenReturn(Mono.empty());
+        StepVerifier.create(snapshotAnimeRepository.reload()).expectNext(2).verifyComplete();
+        // execution
+        StepVerifier.create(snapshotAnimeRepository.saveAll(List.of(new Anime(null, "One Piece"), new Anime(3, "Bleach TYBW"))))
+                .expectNextCount(2)
+                .verifyComplete();
+        StepVerifier.create(snapshotAnimeRepository.deleteById(1)).verifyComplete();
+        // result
+        StepVerifier.create(snapshotAnimeRepository.findAll())
+                .expectNext(new Anime(2, "One Piece"), new Anime(3, "Bleach TYBW"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("A reload that overlapped a write is discarded and loaded again")
+    public void reloadOverlappingWriteIsRetried() {
+        // scenery
+        Sinks.Many<Anime> firstLoad = Sinks.many().unicast().onBackpressureBuffer();
+        BDDMockito.when(animeRepositoryMock.findAll())
+                .thenReturn(firstLoad.asFlux(), Flux.just(new Anime(3, "Bleach")));
+        BDDMockito.when(animeRepositoryMock.deleteById(1)).thenReturn(Mono.empty());
+        // execution
+        StepVerifier.create(snapshotAnimeRepository.reload())
+                .then(() -> {
+                    snapshotAnimeRepository.deleteById(1).block();
+                    firstLoad.tryEmitNext(new Anime(1, "Naruto"));
+                    firstLoad.tryEmitComplete();
+                })
+                // result
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(snapshotAnimeRepository.findById(1)).verifyComplete();
+        Mockito.verify(animeRepositoryMock, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Invalidate sends reads to the database until the snapshot is loaded again")
+    public void invalidateSendsReadsToDatabaseUntilReloaded() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findAll())
+                .thenReturn(Flux.just(new Anime(1, "Naruto")), Flux.never());
+        BDDMockito.when(animeRepositoryMock.invalidate()).thenReturn(Mono.empty());
+        BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(new Anime(1, "Naruto Shippuden")));
+        StepVerifier.create(snapshotAnimeRepository.reload()).expectNext(1).verifyComplete();
+        // execution
+        StepVerifier.create(snapshotAnimeRepository.invalidate()).verifyComplete();
+        // result
+        StepVerifier.create(snapshotAnimeRepository.findById(1)).expectNext(new Anime(1, "Naruto Shippuden")).verifyComplete();
+        Mockito.verify(animeRepositoryMock, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Reads go to the database until the snapshot is loaded")
+    public void readsGoToDatabaseUntilSnapshotIsLoaded() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(new Anime(1, "Naruto")));
+        // execution
+        // result
+        StepVerifier.create(snapshotAnimeRepository.findById(1)).expectNext(new Anime(1, "Naruto")).verifyComplete();
+        Mockito.verify(animeRepositoryMock).findById(1);
+    }
+}
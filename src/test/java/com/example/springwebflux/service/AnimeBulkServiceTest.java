@@ -0,0 +1,68 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.BulkProperties;
+import com.example.springwebflux.domain.Anime;
+import com.example.springwebflux.domain.AnimeUpsertResult;
+import com.example.springwebflux.repository.AnimeBulkRepository;
+import com.example.springwebflux.repository.AnimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class AnimeBulkServiceTest {
+    @Mock
+    private AnimeBulkRepository animeBulkRepositoryMock;
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    private AnimeBulkService animeBulkService;
+
+    @BeforeEach
+    public void setUp() {
+        BulkProperties properties = new BulkProperties();
+        properties.setUpsertChunkSize(2);
+        animeBulkService = new AnimeBulkService(animeBulkRepositoryMock, animeRepositoryMock, properties);
+        BDDMockito.when(animeRepositoryMock.invalidate()).thenReturn(Mono.empty());
+    }
+
+    @Test
+    @DisplayName("Upsert all sends distinct names in chunks and sums the counts")
+    public void upsertAllSendsDistinctNamesInChunksAndSumsCounts() {
+        // scenery
+        BDDMockito.when(animeBulkRepositoryMock.upsert(List.of("Naruto", "Bleach")))
+                .thenReturn(Mono.just(new AnimeUpsertResult(1, 0, 1)));
+        BDDMockito.when(animeBulkRepositoryMock.upsert(List.of("One Piece")))
+                .thenReturn(Mono.just(new AnimeUpsertResult(1, 0, 0)));
+        List<Anime> animeList = List.of(new Anime(null, "Naruto"), new Anime(null, "Bleach"),
+                new Anime(null, "Naruto"), new Anime(null, "One Piece"));
+        // execution
+        StepVerifier.create(animeBulkService.upsertAll(animeList))
+                // result
+                .expectNext(new AnimeUpsertResult(2, 0, 2))
+                .verifyComplete();
+        Mockito.verify(animeRepositoryMock).invalidate();
+    }
+
+    @Test
+    @DisplayName("Upsert all returns Mono error without touching the database when a name is empty")
+    public void upsertAllReturnsMonoErrorWhenNameIsEmpty() {
+        // execution
+        StepVerifier.create(animeBulkService.upsertAll(List.of(new Anime(null, "Naruto"), new Anime(null, ""))))
+                // result
+                .expectError(ResponseStatusException.class)
+                .verify();
+        Mockito.verify(animeBulkRepositoryMock, Mockito.never()).upsert(ArgumentMatchers.anyList());
+    }
+}
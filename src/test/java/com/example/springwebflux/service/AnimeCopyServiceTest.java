@@ -0,0 +1,86 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.BulkProperties;
+import com.example.springwebflux.domain.AnimeImportResult;
+import com.example.springwebflux.repository.AnimeCopyRepository;
+import com.example.springwebflux.repository.AnimeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class AnimeCopyServiceTest {
+    @Mock
+    private AnimeCopyRepository animeCopyRepositoryMock;
+    @Mock
+    private AnimeRepository animeRepositoryMock;
+
+    private AnimeCopyService animeCopyService;
+
+    @BeforeEach
+    public void setUp() {
+        BulkProperties properties = new BulkProperties();
+        properties.setImportChunkRows(2);
+        animeCopyService = new AnimeCopyService(animeCopyRepositoryMock, animeRepositoryMock, properties);
+        BDDMockito.when(animeRepositoryMock.invalidate()).thenReturn(Mono.empty());
+    }
+
+    @Test
+    @DisplayName("Import csv copies valid names in chunks and counts rejected rows")
+    public void importCsvCopiesValidNamesAndCountsRejectedRows() {
+        // scenery
+        BDDMockito.when(animeCopyRepositoryMock.importCsv(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    Flux<byte[]> chunks = invocation.getArgument(0);
+                    return chunks.map(chunk -> new String(chunk, StandardCharsets.UTF_8))
+                            .collectList()
+                            .map(copied -> {
+                                Assertions.assertEquals(List.of("\"Naruto\"\n\"Hunter \"\"x\"\" Hunter\"\n", "\"Bleach\"\n"), copied);
+                                return new AnimeImportResult(2, 0, 1);
+                            });
+                });
+        Flux<String> lines = Flux.just("id,name", "1,Naruto", "2,", "", "3,\"Hunter \"\"x\"\" Hunter\"", "4,\"unclosed", "5,Bleach");
+        // execution
+        StepVerifier.create(animeCopyService.importCsv(lines))
+                // result
+                .expectNext(new AnimeImportResult(2, 2, 1))
+                .verifyComplete();
+        Mockito.verify(animeRepositoryMock).invalidate();
+    }
+
+    @Test
+    @DisplayName("Import csv returns Mono error when the header has no name column")
+    public void importCsvReturnsMonoErrorWhenHeaderHasNoNameColumn() {
+        // scenery
+        BDDMockito.when(animeCopyRepositoryMock.importCsv(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> ((Flux<byte[]>) invocation.getArgument(0)).then(Mono.just(new AnimeImportResult(0, 0, 0))));
+        // execution
+        StepVerifier.create(animeCopyService.importCsv(Flux.just("id,title", "1,Naruto")))
+                // result
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Fields splits a csv line and unescapes quoted fields")
+    public void fieldsSplitsLineAndUnescapesQuotedFields() {
+        // execution
+        List<String> fields = AnimeCopyService.fields("1,\"Fullmetal, \"\"Brotherhood\"\"\",");
+        // result
+        Assertions.assertEquals(List.of("1", "Fullmetal, \"Brotherhood\"", ""), fields);
+    }
+}
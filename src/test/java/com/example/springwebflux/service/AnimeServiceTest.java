@@ -11,6 +11,8 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.blockhound.BlockHound;
@@ -109,6 +111,20 @@ public class AnimeServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("Save returns Mono error with Conflict when the name already exists")
+    public void saveReturnsMonoErrorWithConflictWhenNameAlreadyExists() {
+        // scenery
+        BDDMockito.when(animeRepositoryMock.save(animeToBeSaved()))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("anime_name_uk")));
+        // execution
+        // result
+        StepVerifier.create(animeService.save(animeToBeSaved()))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException
+                        && ((ResponseStatusException) error).getStatus() == HttpStatus.CONFLICT)
+                .verify();
+    }
+
     @Test
     @DisplayName("Delete removes the anime when sucessfull")
     public void deleteRemovesTheAnimeWhenSucessfull () {
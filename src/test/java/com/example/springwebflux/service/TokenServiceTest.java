@@ -0,0 +1,77 @@
+package com.example.springwebflux.service;
+
+import com.example.springwebflux.config.TokenProperties;
+import com.example.springwebflux.domain.AccessToken;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+class TokenServiceTest {
+    private final Instant now = Instant.parse("2021-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("Verify returns the username and roles carried by an issued token")
+    public void verifyReturnsUsernameAndRolesOfIssuedToken() {
+        // scenery
+        TokenService tokenService = tokenService(now);
+        AccessToken accessToken = tokenService.issue(admin());
+        // execution
+        Authentication authentication = tokenService.verify(accessToken.getToken()).orElseThrow();
+        // result
+        Assertions.assertEquals("admin", authentication.getName());
+        Assertions.assertTrue(authentication.isAuthenticated());
+        Assertions.assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"), authentication.getAuthorities());
+        Assertions.assertEquals("Bearer", accessToken.getTokenType());
+        Assertions.assertEquals(900, accessToken.getExpiresIn());
+    }
+
+    @Test
+    @DisplayName("Verify rejects a token whose payload was tampered with")
+    public void verifyRejectsTamperedToken() {
+        // scenery
+        TokenService tokenService = tokenService(now);
+        String token = tokenService.issue(user()).getToken();
+        String signature = token.substring(token.indexOf('.'));
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("user\nROLE_USER,ROLE_ADMIN\n9999999999".getBytes());
+        // execution
+        // result
+        Assertions.assertTrue(tokenService.verify(forgedPayload + signature).isEmpty());
+        Assertions.assertTrue(tokenService.verify("not-a-token").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verify rejects an expired token")
+    public void verifyRejectsExpiredToken() {
+        // scenery
+        String token = tokenService(now).issue(user()).getToken();
+        // execution
+        TokenService later = tokenService(now.plus(Duration.ofMinutes(16)));
+        // result
+        Assertions.assertTrue(later.verify(token).isEmpty());
+    }
+
+    private TokenService tokenService(Instant instant) {
+        TokenProperties properties = new TokenProperties();
+        properties.setSecret(Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        return new TokenService(properties, Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private Authentication user() {
+        return new UsernamePasswordAuthenticationToken("user", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    private Authentication admin() {
+        return new UsernamePasswordAuthenticationToken("admin", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.springwebflux.tracing;
+
+import com.example.springwebflux.domain.RequestTimingSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class RequestTimingRecorderTest {
+
+    @Test
+    @DisplayName("Samples returns the newest samples first and keeps only the buffer size")
+    public void samplesReturnsNewestFirstAndKeepsBufferSize() {
+        // scenery
+        RequestTimingRecorder recorder = new RequestTimingRecorder(2, 1);
+        // execution
+        recorder.offer(() -> sample("/anime"));
+        recorder.offer(() -> sample("/anime/{id}"));
+        recorder.offer(() -> sample("/anime/batch"));
+        // result
+        List<String> paths = recorder.samples().stream()
+                .map(RequestTimingSample::getPath)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(List.of("/anime/batch", "/anime/{id}"), paths);
+    }
+
+    @Test
+    @DisplayName("Offer does not build the sample when the request is not sampled")
+    public void offerDoesNotBuildSampleWhenNotSampled() {
+        // scenery
+        RequestTimingRecorder recorder = new RequestTimingRecorder(2, 0);
+        // execution
+        recorder.offer(() -> {
+            throw new AssertionError("sample should not be built");
+        });
+        // result
+        Assertions.assertTrue(recorder.samples().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Server timing lists only the recorded phases followed by the total")
+    public void serverTimingListsRecordedPhasesAndTotal() {
+        // scenery
+        RequestTiming timing = new RequestTiming();
+        // execution
+        timing.recordSinceRequestStart(Phase.SECURITY);
+        // result
+        String serverTiming = timing.toServerTiming();
+        Assertions.assertTrue(serverTiming.startsWith("security;dur="));
+        Assertions.assertTrue(serverTiming.contains(", total;dur="));
+        Assertions.assertFalse(serverTiming.contains("db;"));
+    }
+
+    private RequestTimingSample sample(String path) {
+        return new RequestTimingSample(Instant.now(), "GET", path, 200, 1.0, Map.of());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.springwebflux.warmup;
+
+import com.example.springwebflux.config.WarmupProperties;
+import com.example.springwebflux.repository.SnapshotAnimeRepository;
+import com.example.springwebflux.service.TokenService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+class WarmupRunnerTest {
+    @Mock
+    private ConnectionPool connectionPoolMock;
+    @Mock
+    private SnapshotAnimeRepository snapshotAnimeRepositoryMock;
+    @Mock
+    private TokenService tokenServiceMock;
+    @Mock
+    private WebClient.Builder webClientBuilderMock;
+    @Mock
+    private Environment environmentMock;
+
+    private Timer timer;
+    private WarmupRunner warmupRunner;
+
+    @BeforeEach
+    public void setUp() {
+        timer = new SimpleMeterRegistry().timer("application.warmup");
+        warmupRunner = new WarmupRunner(new WarmupProperties(), List.of(connectionPoolMock), snapshotAnimeRepositoryMock,
+                tokenServiceMock, webClientBuilderMock, environmentMock, timer);
+    }
+
+    @Test
+    @DisplayName("Run opens the pool connections and loads the snapshot before returning")
+    public void runOpensConnectionsAndLoadsSnapshot() {
+        // scenery
+        BDDMockito.when(connectionPoolMock.warmup()).thenReturn(Mono.just(10));
+        BDDMockito.when(snapshotAnimeRepositoryMock.reload()).thenReturn(Mono.just(42));
+        // execution
+        warmupRunner.run(new DefaultApplicationArguments());
+        // result
+        Mockito.verify(connectionPoolMock).warmup();
+        Mockito.verify(snapshotAnimeRepositoryMock).reload();
+        Mockito.verifyNoInteractions(webClientBuilderMock);
+        Assertions.assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("Run still returns, so the application reports ready, when the database is down")
+    public void runReturnsWhenWarmupFails() {
+        // scenery
+        BDDMockito.when(connectionPoolMock.warmup()).thenReturn(Mono.error(new IllegalStateException("database is down")));
+        BDDMockito.when(snapshotAnimeRepositoryMock.reload()).thenReturn(Mono.error(new IllegalStateException("database is down")));
+        // execution
+        // result
+        Assertions.assertDoesNotThrow(() -> warmupRunner.run(new DefaultApplicationArguments()));
+        Assertions.assertEquals(1, timer.count());
+    }
+}